@@ -0,0 +1,89 @@
+package com.neurofleetx.benchmark;
+
+import com.neurofleetx.config.RoutingConfig;
+import com.neurofleetx.model.Route;
+import com.neurofleetx.repository.TripRepository;
+import com.neurofleetx.routing.ContractionHierarchyManager;
+import com.neurofleetx.routing.RoadGraphLoader;
+import com.neurofleetx.service.RouteOptimizationEngine;
+import com.neurofleetx.service.TrafficProfileService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares generating the three route types sequentially against running them
+ * concurrently on the routing pool. Run with
+ * {@code mvn -Pjmh test-compile exec:exec} on a host with at least two
+ * processors; on a single processor the engine always searches sequentially,
+ * so both variants measure the same path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteOptimizationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean parallelSearch;
+
+    @Param({"ASTAR", "DIJKSTRA"})
+    public String searchMode;
+
+    @Param({"80", "200"})
+    public int gridSize;
+
+    private AnnotationConfigApplicationContext context;
+    private RouteOptimizationEngine engine;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+            "routing.parallel-search", String.valueOf(parallelSearch),
+            "routing.search-mode", searchMode,
+            "routing.ch.enabled", "false",
+            "routing.graph.synthetic.size", String.valueOf(gridSize)
+        )));
+        // No trip history: traffic profiles fall back to the rush-hour prior
+        context.registerBean(TripRepository.class, () -> (TripRepository) Proxy.newProxyInstance(
+            TripRepository.class.getClassLoader(), new Class<?>[]{TripRepository.class},
+            (proxy, method, args) -> List.of()));
+        context.register(RoutingConfig.class, RoadGraphLoader.class, ContractionHierarchyManager.class,
+            TrafficProfileService.class, RouteOptimizationEngine.class);
+        context.refresh();
+        engine = context.getBean(RouteOptimizationEngine.class);
+
+        // Random origin/destination pairs inside the synthetic grid
+        double span = 0.004 * (gridSize - 1) / 2;
+        Random random = new Random(7);
+        queries = new double[256][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[]{
+                40.7350 + (random.nextDouble() * 2 - 1) * span, -73.9900 + (random.nextDouble() * 2 - 1) * span,
+                40.7350 + (random.nextDouble() * 2 - 1) * span, -73.9900 + (random.nextDouble() * 2 - 1) * span
+            };
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Route> generateOptimizedRoutes() {
+        double[] query = queries[next++ & (queries.length - 1)];
+        return engine.generateOptimizedRoutes("A", "B", query[0], query[1], query[2], query[3], 1L);
+    }
+}
@@ -0,0 +1,56 @@
+package com.neurofleetx.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class RoutingConfig {
+
+    /**
+     * Bounded pool for route searches. When the queue is full the submitting
+     * thread runs the search itself, so overload degrades to sequential routing
+     * instead of rejecting requests. A thread count of zero or less uses one
+     * thread per available processor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService routingExecutor(
+            @Value("${routing.executor.threads:0}") int configuredThreads,
+            @Value("${routing.executor.queue-capacity:256}") int queueCapacity) {
+        int threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+            threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "routing-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Fork-join pool for batch route optimization, which splits a batch into
+     * ranges of requests. A parallelism of zero or less uses one worker per
+     * available processor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool routingForkJoinPool(@Value("${routing.batch.parallelism:0}") int configuredParallelism) {
+        int parallelism = configuredParallelism > 0 ? configuredParallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("routing-batch-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+}
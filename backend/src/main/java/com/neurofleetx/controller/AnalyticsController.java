@@ -3,6 +3,7 @@ package com.neurofleetx.controller;
 import com.neurofleetx.dto.*;
 import com.neurofleetx.service.AnalyticsService;
 import com.neurofleetx.service.ReportGenerationService;
+import com.neurofleetx.service.VehiclePerformanceLeaderboard;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -35,6 +37,16 @@ public class AnalyticsController {
         return ResponseEntity.ok(analyticsService.getFleetDistribution());
     }
 
+    @GetMapping("/fleet-distribution/tiles")
+    public ResponseEntity<FleetHeatmapTiles> getFleetDistributionTiles(
+            @RequestParam(defaultValue = "14") int zoom,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLon) {
+        return ResponseEntity.ok(analyticsService.getFleetDistributionTiles(zoom, minLat, maxLat, minLon, maxLon));
+    }
+
     @GetMapping("/hourly-activity")
     public ResponseEntity<HourlyActivityData> getHourlyActivity() {
         return ResponseEntity.ok(analyticsService.getHourlyActivity());
@@ -47,8 +59,15 @@ public class AnalyticsController {
     }
 
     @GetMapping("/vehicle-performance")
-    public ResponseEntity<Map<String, Object>> getVehiclePerformance() {
-        return ResponseEntity.ok(analyticsService.getVehiclePerformance());
+    public ResponseEntity<VehiclePerformanceData> getVehiclePerformance(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "REVENUE") VehiclePerformanceLeaderboard.RankingMetric metric) {
+        return ResponseEntity.ok(analyticsService.getVehiclePerformance(limit, metric));
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<AnalyticsCacheStats>> getCacheStats() {
+        return ResponseEntity.ok(analyticsService.getCacheStats());
     }
 
     @GetMapping("/reports/fleet/csv")
@@ -2,6 +2,7 @@ package com.neurofleetx.controller;
 
 import com.neurofleetx.dto.BookingAvailabilityRequest;
 import com.neurofleetx.dto.BookingAvailabilityResponse;
+import com.neurofleetx.dto.VehicleRecommendationPage;
 import com.neurofleetx.dto.VehicleRecommendationResponse;
 import com.neurofleetx.dto.VehicleSearchRequest;
 import com.neurofleetx.model.Booking;
@@ -17,6 +18,8 @@ import java.util.List;
 @RequestMapping("/api")
 @CrossOrigin(origins = "http://localhost:3000")
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private BookingService bookingService;
 
@@ -56,8 +59,16 @@ public class BookingController {
     @PostMapping("/customer/bookings/search")
     public ResponseEntity<List<VehicleRecommendationResponse>> searchVehicles(
             @RequestParam String username,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
             @RequestBody VehicleSearchRequest searchRequest) {
-        return ResponseEntity.ok(recommendationEngine.searchVehicles(username, searchRequest));
+        VehicleRecommendationPage result = recommendationEngine.searchVehicles(username, searchRequest, page, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, result.getNextCursor());
+        }
+        return response.body(result.getRecommendations());
     }
 
     @PostMapping("/customer/bookings/availability")
@@ -1,5 +1,6 @@
 package com.neurofleetx.controller;
 
+import com.neurofleetx.dto.LoadTourPlan;
 import com.neurofleetx.dto.VehicleAssignmentRequest;
 import com.neurofleetx.model.Load;
 import com.neurofleetx.service.LoadService;
@@ -47,6 +48,11 @@ public class LoadController {
         return ResponseEntity.ok(loadService.autoAssignPendingLoads());
     }
     
+    @PostMapping("/loads/plan-tours")
+    public ResponseEntity<LoadTourPlan> planLoadTours() {
+        return ResponseEntity.ok(loadService.planPendingLoadTours());
+    }
+    
     @PutMapping("/loads/{id}/status")
     public ResponseEntity<Load> updateLoadStatus(
             @PathVariable Long id,
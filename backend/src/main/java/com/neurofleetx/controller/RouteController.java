@@ -1,8 +1,11 @@
 package com.neurofleetx.controller;
 
+import com.neurofleetx.dto.RouteMatrixRequest;
+import com.neurofleetx.dto.RouteMatrixResponse;
 import com.neurofleetx.dto.RouteOptimizationRequest;
 import com.neurofleetx.dto.RouteOptimizationResponse;
 import com.neurofleetx.model.Route;
+import com.neurofleetx.service.RouteMatrixService;
 import com.neurofleetx.service.RouteService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +20,9 @@ public class RouteController {
     @Autowired
     private RouteService routeService;
     
+    @Autowired
+    private RouteMatrixService routeMatrixService;
+    
     @PostMapping("/routes/optimize")
     public ResponseEntity<RouteOptimizationResponse> optimizeRoute(
             @RequestBody RouteOptimizationRequest request) {
@@ -24,6 +30,17 @@ public class RouteController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/routes/optimize/batch")
+    public ResponseEntity<List<RouteOptimizationResponse>> optimizeRoutes(
+            @RequestBody List<RouteOptimizationRequest> requests) {
+        return ResponseEntity.ok(routeService.optimizeRoutes(requests));
+    }
+    
+    @PostMapping("/routes/matrix")
+    public ResponseEntity<RouteMatrixResponse> computeMatrix(@RequestBody RouteMatrixRequest request) {
+        return ResponseEntity.ok(routeMatrixService.computeMatrix(request));
+    }
+    
     @GetMapping("/routes")
     public ResponseEntity<List<Route>> getAllRoutes() {
         return ResponseEntity.ok(routeService.getAllRoutes());
@@ -88,6 +88,21 @@ public class VehicleController {
         return ResponseEntity.ok(vehicles);
     }
 
+    @GetMapping("/vehicles/nearby")
+    public ResponseEntity<?> getNearbyVehicles(
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam(defaultValue = "5") Double radiusKm,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) Integer minEnergyLevel) {
+        try {
+            return ResponseEntity.ok(vehicleService.getNearbyAvailableVehicles(
+                    latitude, longitude, radiusKm, minCapacity, minEnergyLevel));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("message", e.getMessage()));
+        }
+    }
+
     @GetMapping("/vehicles/filter")
     public ResponseEntity<List<Vehicle>> filterVehicles(
             @RequestParam(required = false) Vehicle.VehicleStatus status,
@@ -0,0 +1,20 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsCacheStats {
+    private String endpoint;
+    private Long ttlMillis;
+    private Long hits;
+    private Long misses;
+    private Long coalescedMisses;
+    private Long invalidations;
+    private Long recomputations;
+    private Double averageRecomputeMillis;
+    private Double maxRecomputeMillis;
+}
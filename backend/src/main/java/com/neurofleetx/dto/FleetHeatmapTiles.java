@@ -0,0 +1,18 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetHeatmapTiles {
+    private Integer zoom;
+    private Double cellSizeDegrees;
+    private List<HeatmapCell> vehicleCells;
+    private Map<String, Integer> typeDistribution;
+    private Map<String, Integer> statusDistribution;
+}
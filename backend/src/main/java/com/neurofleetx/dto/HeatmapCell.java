@@ -0,0 +1,15 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatmapCell {
+    private Double latitude;
+    private Double longitude;
+    private Integer count;
+    private Integer intensity;
+}
@@ -0,0 +1,22 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTour {
+    private Long routeId;
+    private Long vehicleId;
+    private String vehicleNumber;
+    // Loads in delivery order
+    private List<Long> loadIds;
+    private Double totalWeight;
+    private Integer capacity;
+    private Double distanceKm;
+    private Integer etaMinutes;
+}
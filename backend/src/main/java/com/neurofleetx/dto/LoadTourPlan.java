@@ -0,0 +1,17 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTourPlan {
+    private List<LoadTour> tours;
+    private List<Long> unassignedLoadIds;
+    private Double totalDistanceKm;
+    private long computeTimeMs;
+}
@@ -0,0 +1,13 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteMatrixPoint {
+    private Double latitude;
+    private Double longitude;
+}
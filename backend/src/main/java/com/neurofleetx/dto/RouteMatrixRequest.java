@@ -0,0 +1,19 @@
+package com.neurofleetx.dto;
+
+import com.neurofleetx.model.Route;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteMatrixRequest {
+    private List<RouteMatrixPoint> sources;
+    private List<RouteMatrixPoint> destinations;
+    private Route.OptimizationType optimizationType;
+    // Defaults to now; FASTEST times use the traffic profile slots from this departure
+    private LocalDateTime departureTime;
+}
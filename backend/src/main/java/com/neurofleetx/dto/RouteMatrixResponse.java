@@ -0,0 +1,19 @@
+package com.neurofleetx.dto;
+
+import com.neurofleetx.model.Route;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteMatrixResponse {
+    private Route.OptimizationType optimizationType;
+    private int sourceCount;
+    private int destinationCount;
+    // Indexed [source][destination]
+    private float[][] timesMinutes;
+    private float[][] distancesKm;
+    private long computeTimeMs;
+}
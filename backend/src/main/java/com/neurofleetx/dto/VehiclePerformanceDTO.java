@@ -0,0 +1,19 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehiclePerformanceDTO {
+    private String vehicleId;
+    private String model;
+    private String type;
+    private String status;
+    private Integer totalTrips;
+    private Double totalRevenue;
+    private Integer healthScore;
+    private Double utilization;
+}
@@ -0,0 +1,14 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehiclePerformanceData {
+    private List<VehiclePerformanceDTO> topPerformers;
+    private String rankedBy;
+}
@@ -0,0 +1,15 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleRecommendationPage {
+    private List<VehicleRecommendationResponse> recommendations;
+    // Null when this is the last page
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.neurofleetx.event;
+
+import com.neurofleetx.model.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BookingChangedEvent {
+    private final Booking booking;
+    private final Booking.BookingStatus previousStatus;
+    private final Double previousTotalPrice;
+
+    public boolean isCreated() {
+        return previousStatus == null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.neurofleetx.event;
+
+import com.neurofleetx.model.Maintenance;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class MaintenanceChangedEvent {
+    private final Maintenance maintenance;
+    private final Maintenance.MaintenanceStatus previousStatus;
+}
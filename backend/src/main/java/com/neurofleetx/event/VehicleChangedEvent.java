@@ -0,0 +1,17 @@
+package com.neurofleetx.event;
+
+import com.neurofleetx.model.Vehicle;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class VehicleChangedEvent {
+    private final Vehicle vehicle;
+    private final Vehicle.VehicleStatus previousStatus;
+    private final ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED, UPDATED, TELEMETRY, DELETED
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 
 @Entity
 @Table(name = "bookings")
@@ -12,6 +14,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Booking {
+    // Statuses in which a booking holds its vehicle
+    public static final Set<BookingStatus> ACTIVE_STATUSES =
+            EnumSet.of(BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.IN_PROGRESS);
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -51,6 +57,11 @@ public class Booking {
 
     private Boolean isRecommended = false;
 
+    // Optimistic lock
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public enum BookingStatus {
         PENDING, CONFIRMED, IN_PROGRESS, COMPLETED, CANCELLED
     }
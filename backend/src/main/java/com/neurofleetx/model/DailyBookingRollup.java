@@ -0,0 +1,29 @@
+package com.neurofleetx.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "daily_booking_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyBookingRollup {
+    @Id
+    private LocalDate rollupDate;
+
+    @Column(nullable = false)
+    private Integer bookingCount = 0;
+
+    @Column(nullable = false)
+    private Double revenue = 0.0;
+
+    @Column(nullable = false)
+    private Integer completedCount = 0;
+
+    private LocalDateTime updatedAt;
+}
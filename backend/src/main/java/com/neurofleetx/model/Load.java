@@ -49,6 +49,11 @@ public class Load {
 
     private String specialInstructions;
 
+    // Optimistic lock
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public enum Priority {
         LOW, MEDIUM, HIGH, URGENT
     }
@@ -59,6 +59,11 @@ public class Vehicle {
 
     private Double speed = 0.0;
 
+    // Optimistic lock
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public enum VehicleType {
         SEDAN, SUV, VAN, TRUCK, BUS, BIKE
     }
@@ -4,8 +4,11 @@ import com.neurofleetx.model.Booking;
 import com.neurofleetx.model.User;
 import com.neurofleetx.model.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,7 +16,47 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByCustomer(User customer);
     List<Booking> findByVehicle(Vehicle vehicle);
     List<Booking> findByStatus(Booking.BookingStatus status);
+    List<Booking> findByStatusIn(Collection<Booking.BookingStatus> statuses);
     List<Booking> findByCustomerOrderByCreatedAtDesc(User customer);
     List<Booking> findByDriver(User driver);
     List<Booking> findByDriverOrderByCreatedAtDesc(User driver);
+
+    // Periods overlap when they share any instant, end points included
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.vehicle.id = :vehicleId AND b.status IN :statuses "
+            + "AND b.startTime <= :end AND b.endTime >= :start AND b.id <> :ignoredBookingId")
+    boolean existsOverlapping(Long vehicleId, Collection<Booking.BookingStatus> statuses,
+                              LocalDateTime start, LocalDateTime end, Long ignoredBookingId);
+
+    @Query("SELECT DISTINCT b.vehicle.id FROM Booking b WHERE b.status IN :statuses")
+    List<Long> findVehicleIdsByStatusIn(Collection<Booking.BookingStatus> statuses);
+
+    @Query("SELECT COALESCE(SUM(b.totalPrice), 0) FROM Booking b WHERE b.status = :status")
+    Double sumTotalPriceByStatus(Booking.BookingStatus status);
+
+    @Query("SELECT COALESCE(SUM(b.totalPrice), 0) FROM Booking b WHERE b.createdAt >= :start AND b.createdAt < :end")
+    Double sumTotalPriceCreatedBetween(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT b.customer.id, COUNT(b) FROM Booking b WHERE b.status = :status GROUP BY b.customer.id")
+    List<Object[]> countByCustomerWithStatus(Booking.BookingStatus status);
+
+    @Query("SELECT b.vehicle.id, COUNT(b), COALESCE(SUM(b.totalPrice), 0), "
+            + "COALESCE(SUM(CASE WHEN b.status = :completedStatus THEN 1 ELSE 0 END), 0) "
+            + "FROM Booking b GROUP BY b.vehicle.id")
+    List<Object[]> aggregateByVehicle(Booking.BookingStatus completedStatus);
+
+    @Query(value = "SELECT CASE WHEN typeof(created_at) = 'integer' "
+            + "THEN date(created_at / 1000, 'unixepoch', 'localtime') "
+            + "ELSE date(created_at) END AS created_day, "
+            + "COUNT(*), COALESCE(SUM(total_price), 0), "
+            + "SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END) "
+            + "FROM bookings WHERE created_at >= :start AND created_at < :end "
+            + "GROUP BY created_day", nativeQuery = true)
+    List<Object[]> summarizeCreatedByDay(LocalDateTime start, LocalDateTime end);
+
+    @Query(value = "SELECT CAST(CASE WHEN typeof(start_time) = 'integer' "
+            + "THEN strftime('%H', start_time / 1000, 'unixepoch', 'localtime') "
+            + "ELSE strftime('%H', start_time) END AS INTEGER) AS start_hour, "
+            + "COUNT(*), COALESCE(SUM(total_price), 0), COUNT(DISTINCT vehicle_id) "
+            + "FROM bookings WHERE start_time IS NOT NULL GROUP BY start_hour", nativeQuery = true)
+    List<Object[]> aggregateByStartHour();
 }
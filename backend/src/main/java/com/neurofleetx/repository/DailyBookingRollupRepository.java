@@ -0,0 +1,13 @@
+package com.neurofleetx.repository;
+
+import com.neurofleetx.model.DailyBookingRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyBookingRollupRepository extends JpaRepository<DailyBookingRollup, LocalDate> {
+    List<DailyBookingRollup> findByRollupDateBetweenOrderByRollupDateAsc(LocalDate start, LocalDate end);
+}
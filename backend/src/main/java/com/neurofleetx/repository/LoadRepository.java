@@ -2,8 +2,11 @@ package com.neurofleetx.repository;
 
 import com.neurofleetx.model.Load;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,10 +15,26 @@ public interface LoadRepository extends JpaRepository<Load, Long> {
     List<Load> findByStatus(Load.LoadStatus status);
     List<Load> findByPriority(Load.Priority priority);
     List<Load> findByAssignedRouteId(Long routeId);
+    long countByAssignedRouteIdAndStatusIn(Long routeId, Collection<Load.LoadStatus> statuses);
     
     @Query("SELECT l FROM Load l WHERE l.status = 'PENDING' ORDER BY l.priority DESC, l.createdAt ASC")
     List<Load> findPendingLoadsByPriority();
     
     @Query("SELECT l FROM Load l WHERE l.vehicleId IS NULL AND l.status = 'PENDING'")
     List<Load> findUnassignedLoads();
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Load l SET l.vehicleId = ?2, l.status = 'ASSIGNED', l.assignedAt = ?3, l.version = l.version + 1 " +
+           "WHERE l.loadId = ?1 AND l.vehicleId IS NULL AND l.status = 'PENDING'")
+    int assignIfUnassigned(Long loadId, Long vehicleId, LocalDateTime assignedAt);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Load l SET l.vehicleId = ?2, l.assignedRouteId = ?3, l.status = 'ASSIGNED', l.assignedAt = ?4, " +
+           "l.version = l.version + 1 WHERE l.loadId = ?1 AND l.vehicleId IS NULL AND l.status = 'PENDING'")
+    int assignToRouteIfUnassigned(Long loadId, Long vehicleId, Long routeId, LocalDateTime assignedAt);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Load l SET l.vehicleId = NULL, l.assignedRouteId = NULL, l.status = 'PENDING', l.assignedAt = NULL, " +
+           "l.version = l.version + 1 WHERE l.assignedRouteId = ?1 AND l.status = 'ASSIGNED'")
+    int releaseRoute(Long routeId);
 }
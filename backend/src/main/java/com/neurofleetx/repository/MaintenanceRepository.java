@@ -13,4 +13,5 @@ public interface MaintenanceRepository extends JpaRepository<Maintenance, Long>
     List<Maintenance> findByStatus(Maintenance.MaintenanceStatus status);
     List<Maintenance> findByPriority(Maintenance.Priority priority);
     List<Maintenance> findByIsPredictive(Boolean isPredictive);
+    long countByStatus(Maintenance.MaintenanceStatus status);
 }
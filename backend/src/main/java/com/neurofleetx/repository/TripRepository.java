@@ -4,8 +4,10 @@ import com.neurofleetx.model.Trip;
 import com.neurofleetx.model.User;
 import com.neurofleetx.model.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -14,4 +16,9 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
     List<Trip> findByVehicle(Vehicle vehicle);
     List<Trip> findByStatus(Trip.TripStatus status);
     List<Trip> findByDriverOrderByStartTimeDesc(User driver);
+    long countByStatus(Trip.TripStatus status);
+    long countByStartTimeBetween(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT t.startTime, t.endTime, t.distance, t.duration FROM Trip t WHERE t.status = ?1 AND t.startTime IS NOT NULL")
+    List<Object[]> findTimingsByStatus(Trip.TripStatus status);
 }
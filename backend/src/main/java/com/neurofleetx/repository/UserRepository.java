@@ -14,4 +14,5 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRole(User.UserRole role);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    long countByRole(User.UserRole role);
 }
@@ -12,7 +12,8 @@ import java.util.List;
 public interface VehicleRatingRepository extends JpaRepository<VehicleRating, Long> {
     List<VehicleRating> findByCustomer(User customer);
     List<VehicleRating> findByVehicle(Vehicle vehicle);
-    
-    @Query("SELECT AVG(r.rating) FROM VehicleRating r WHERE r.vehicle = :vehicle")
-    Double findAverageRatingByVehicle(Vehicle vehicle);
+
+    // Maintained by triggers on vehicle_ratings
+    @Query(value = "SELECT vehicle_id, rating_count, rating_sum FROM vehicle_rating_summary", nativeQuery = true)
+    List<Object[]> findRatingSummaries();
 }
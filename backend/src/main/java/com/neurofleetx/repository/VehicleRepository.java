@@ -1,7 +1,11 @@
 package com.neurofleetx.repository;
 
 import com.neurofleetx.model.Vehicle;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +17,16 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     List<Vehicle> findByStatus(Vehicle.VehicleStatus status);
     List<Vehicle> findByType(Vehicle.VehicleType type);
     List<Vehicle> findByIsElectric(Boolean isElectric);
+
+    // Bumps the version on commit, so concurrent writers that read the vehicle conflict
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT v FROM Vehicle v WHERE v.id = ?1")
+    Optional<Vehicle> findForVersionIncrementById(Long id);
+
+    @Query("SELECT v.status, COUNT(v) FROM Vehicle v GROUP BY v.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Vehicle v SET v.status = ?3, v.version = v.version + 1 WHERE v.id = ?1 AND v.status = ?2")
+    int updateStatusIfCurrent(Long id, Vehicle.VehicleStatus expected, Vehicle.VehicleStatus status);
 }
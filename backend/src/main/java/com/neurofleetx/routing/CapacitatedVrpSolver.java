@@ -0,0 +1,252 @@
+package com.neurofleetx.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Capacitated vehicle routing over a cost matrix whose index 0 is the depot and
+ * indexes 1..n are the stops. Tours start and end at the depot. Tours are built
+ * with the Clarke-Wright savings heuristic and then improved by local search
+ * (2-opt within a tour, relocating a stop, swapping two stops) until no move
+ * helps or the time budget runs out. The matrix may be asymmetric.
+ */
+public final class CapacitatedVrpSolver {
+
+    private final float[][] costs;
+    private final double[] demands;
+    private final double capacity;
+    private final long deadline;
+
+    private CapacitatedVrpSolver(float[][] costs, double[] demands, double capacity, long timeBudgetMillis) {
+        this.costs = costs;
+        this.demands = demands;
+        this.capacity = capacity;
+        this.deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+    }
+
+    /**
+     * Returns the tours as stop indexes in visiting order, without the depot.
+     * Stops whose demand exceeds the capacity are left out.
+     */
+    public static List<int[]> solve(float[][] costs, double[] demands, double capacity, long timeBudgetMillis) {
+        CapacitatedVrpSolver solver = new CapacitatedVrpSolver(costs, demands, capacity, timeBudgetMillis);
+        List<int[]> tours = solver.savings();
+        solver.improve(tours);
+        return tours;
+    }
+
+    public static double tourCost(float[][] costs, int[] tour) {
+        if (tour.length == 0) return 0.0;
+        double cost = costs[0][tour[0]];
+        for (int i = 1; i < tour.length; i++) {
+            cost += costs[tour[i - 1]][tour[i]];
+        }
+        return cost + costs[tour[tour.length - 1]][0];
+    }
+
+    private List<int[]> savings() {
+        int n = costs.length - 1;
+        int[] next = new int[n + 1];
+        int[] head = new int[n + 1];
+        int[] tail = new int[n + 1];
+        double[] load = new double[n + 1];
+        boolean[] served = new boolean[n + 1];
+
+        // Every stop starts on its own tour, identified by its first stop
+        for (int i = 1; i <= n; i++) {
+            if (demands[i] > capacity) continue;
+            served[i] = true;
+            head[i] = i;
+            tail[i] = i;
+            load[i] = demands[i];
+        }
+
+        int pairCount = 0;
+        long[] pairs = new long[n * (n - 1)];
+        double[] values = new double[n * (n - 1)];
+        for (int i = 1; i <= n; i++) {
+            if (!served[i]) continue;
+            for (int j = 1; j <= n; j++) {
+                if (i == j || !served[j]) continue;
+                double saving = costs[i][0] + costs[0][j] - costs[i][j];
+                if (saving > 0) {
+                    pairs[pairCount] = ((long) i << 32) | j;
+                    values[pairCount] = saving;
+                    pairCount++;
+                }
+            }
+        }
+        Integer[] order = new Integer[pairCount];
+        for (int p = 0; p < pairCount; p++) order[p] = p;
+        Arrays.sort(order, (a, b) -> Double.compare(values[b], values[a]));
+
+        // Join the tour ending at i with the tour starting at j
+        for (int p : order) {
+            int i = (int) (pairs[p] >>> 32);
+            int j = (int) pairs[p];
+            int tourOfI = head[i];
+            int tourOfJ = head[j];
+            if (tourOfI == tourOfJ || tail[tourOfI] != i || tourOfJ != j) continue;
+            if (load[tourOfI] + load[tourOfJ] > capacity) continue;
+
+            next[i] = j;
+            load[tourOfI] += load[tourOfJ];
+            tail[tourOfI] = tail[tourOfJ];
+            for (int stop = j; stop != 0; stop = next[stop]) {
+                head[stop] = tourOfI;
+            }
+        }
+
+        List<int[]> tours = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            if (!served[i] || head[i] != i) continue;
+            int length = 0;
+            for (int stop = i; stop != 0; stop = next[stop]) length++;
+            int[] tour = new int[length];
+            int index = 0;
+            for (int stop = i; stop != 0; stop = next[stop]) tour[index++] = stop;
+            tours.add(tour);
+        }
+        return tours;
+    }
+
+    private void improve(List<int[]> tours) {
+        boolean improved = true;
+        while (improved && !outOfTime()) {
+            improved = false;
+            for (int t = 0; t < tours.size() && !outOfTime(); t++) {
+                improved |= twoOpt(tours, t);
+            }
+            improved |= relocate(tours);
+            improved |= swap(tours);
+            tours.removeIf(tour -> tour.length == 0);
+        }
+    }
+
+    private boolean twoOpt(List<int[]> tours, int t) {
+        int[] tour = tours.get(t);
+        double best = tourCost(costs, tour);
+        boolean improved = false;
+        for (int i = 0; i < tour.length - 1; i++) {
+            for (int j = i + 1; j < tour.length; j++) {
+                int[] candidate = tour.clone();
+                for (int a = i, b = j; a < b; a++, b--) {
+                    int swap = candidate[a];
+                    candidate[a] = candidate[b];
+                    candidate[b] = swap;
+                }
+                double cost = tourCost(costs, candidate);
+                if (cost < best - 1e-9) {
+                    tour = candidate;
+                    best = cost;
+                    improved = true;
+                }
+            }
+        }
+        tours.set(t, tour);
+        return improved;
+    }
+
+    private boolean relocate(List<int[]> tours) {
+        boolean improved = false;
+        for (int from = 0; from < tours.size(); from++) {
+            for (int position = 0; position < tours.get(from).length; position++) {
+                if (outOfTime()) return improved;
+                int[] source = tours.get(from);
+                int stop = source[position];
+                int[] shortened = remove(source, position);
+                double removalGain = tourCost(costs, source) - tourCost(costs, shortened);
+
+                int bestTour = -1;
+                int[] bestInsert = null;
+                double bestDelta = -1e-9;
+                for (int to = 0; to < tours.size(); to++) {
+                    int[] target = to == from ? shortened : tours.get(to);
+                    if (to != from && load(target) + demands[stop] > capacity) continue;
+                    double before = tourCost(costs, target);
+                    for (int insert = 0; insert <= target.length; insert++) {
+                        int[] candidate = insert(target, insert, stop);
+                        double delta = tourCost(costs, candidate) - before - removalGain;
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestTour = to;
+                            bestInsert = candidate;
+                        }
+                    }
+                }
+                if (bestTour >= 0) {
+                    if (bestTour == from) {
+                        tours.set(from, bestInsert);
+                    } else {
+                        tours.set(from, shortened);
+                        tours.set(bestTour, bestInsert);
+                    }
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    private boolean swap(List<int[]> tours) {
+        boolean improved = false;
+        for (int a = 0; a < tours.size(); a++) {
+            for (int b = a + 1; b < tours.size(); b++) {
+                if (outOfTime()) return improved;
+                int[] first = tours.get(a);
+                int[] second = tours.get(b);
+                double firstLoad = load(first);
+                double secondLoad = load(second);
+                double before = tourCost(costs, first) + tourCost(costs, second);
+                for (int i = 0; i < first.length; i++) {
+                    for (int j = 0; j < second.length; j++) {
+                        double shift = demands[second[j]] - demands[first[i]];
+                        if (firstLoad + shift > capacity || secondLoad - shift > capacity) continue;
+                        int[] newFirst = first.clone();
+                        int[] newSecond = second.clone();
+                        newFirst[i] = second[j];
+                        newSecond[j] = first[i];
+                        double after = tourCost(costs, newFirst) + tourCost(costs, newSecond);
+                        if (after < before - 1e-9) {
+                            first = newFirst;
+                            second = newSecond;
+                            firstLoad += shift;
+                            secondLoad -= shift;
+                            before = after;
+                            improved = true;
+                        }
+                    }
+                }
+                tours.set(a, first);
+                tours.set(b, second);
+            }
+        }
+        return improved;
+    }
+
+    private double load(int[] tour) {
+        double total = 0.0;
+        for (int stop : tour) total += demands[stop];
+        return total;
+    }
+
+    private boolean outOfTime() {
+        return System.nanoTime() > deadline;
+    }
+
+    private static int[] remove(int[] tour, int position) {
+        int[] result = new int[tour.length - 1];
+        System.arraycopy(tour, 0, result, 0, position);
+        System.arraycopy(tour, position + 1, result, position, tour.length - position - 1);
+        return result;
+    }
+
+    private static int[] insert(int[] tour, int position, int stop) {
+        int[] result = new int[tour.length + 1];
+        System.arraycopy(tour, 0, result, 0, position);
+        result[position] = stop;
+        System.arraycopy(tour, position, result, position + 1, tour.length - position);
+        return result;
+    }
+}
@@ -0,0 +1,281 @@
+package com.neurofleetx.routing;
+
+import com.neurofleetx.model.Route;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Contraction hierarchy for one optimization metric. Every hierarchy edge is
+ * stored once, either in the upward list of its lower-ranked source (forward
+ * search) or in the list of its lower-ranked target (backward search). Shortcuts
+ * point at the two hierarchy edges they replace; original edges point at their
+ * {@link RoadGraph} edge id, so paths can be unpacked to road edges.
+ *
+ * <p>The arrays are held as buffers so that a hierarchy can be served straight
+ * from a memory-mapped file written by {@link #write(Path)}.
+ */
+public final class ContractionHierarchy {
+
+    private static final int MAGIC = 0x4E464348;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 48;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private final Route.OptimizationType type;
+    private final int nodeCount;
+    private final int graphEdgeCount;
+    private final long fingerprint;
+
+    private final IntBuffer ranks;
+    private final IntBuffer upOffsets;
+    private final IntBuffer upTargets;
+    private final FloatBuffer upWeights;
+    private final IntBuffer upEdges;
+    private final IntBuffer downOffsets;
+    private final IntBuffer downSources;
+    private final FloatBuffer downWeights;
+    private final IntBuffer downEdges;
+    // Shortcut: both children are hierarchy edges. Original edge: first child is the road edge, second is -1
+    private final IntBuffer firstChildren;
+    private final IntBuffer secondChildren;
+
+    ContractionHierarchy(Route.OptimizationType type, int nodeCount, int graphEdgeCount, long fingerprint,
+                         IntBuffer ranks,
+                         IntBuffer upOffsets, IntBuffer upTargets, FloatBuffer upWeights, IntBuffer upEdges,
+                         IntBuffer downOffsets, IntBuffer downSources, FloatBuffer downWeights, IntBuffer downEdges,
+                         IntBuffer firstChildren, IntBuffer secondChildren) {
+        this.type = type;
+        this.nodeCount = nodeCount;
+        this.graphEdgeCount = graphEdgeCount;
+        this.fingerprint = fingerprint;
+        this.ranks = ranks;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upEdges = upEdges;
+        this.downOffsets = downOffsets;
+        this.downSources = downSources;
+        this.downWeights = downWeights;
+        this.downEdges = downEdges;
+        this.firstChildren = firstChildren;
+        this.secondChildren = secondChildren;
+    }
+
+    public Route.OptimizationType type() {
+        return type;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return firstChildren.limit();
+    }
+
+    public int shortcutCount() {
+        return firstChildren.limit() - graphEdgeCount;
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    public int rank(int node) {
+        return ranks.get(node);
+    }
+
+    int firstUpEdge(int node) {
+        return upOffsets.get(node);
+    }
+
+    int lastUpEdge(int node) {
+        return upOffsets.get(node + 1);
+    }
+
+    int upTarget(int index) {
+        return upTargets.get(index);
+    }
+
+    float upWeight(int index) {
+        return upWeights.get(index);
+    }
+
+    int upEdge(int index) {
+        return upEdges.get(index);
+    }
+
+    int firstDownEdge(int node) {
+        return downOffsets.get(node);
+    }
+
+    int lastDownEdge(int node) {
+        return downOffsets.get(node + 1);
+    }
+
+    int downSource(int index) {
+        return downSources.get(index);
+    }
+
+    float downWeight(int index) {
+        return downWeights.get(index);
+    }
+
+    int downEdge(int index) {
+        return downEdges.get(index);
+    }
+
+    int firstChild(int edge) {
+        return firstChildren.get(edge);
+    }
+
+    int secondChild(int edge) {
+        return secondChildren.get(edge);
+    }
+
+    /**
+     * Fingerprint of the graph shape and the metric's edge weights, used to detect
+     * hierarchy files that were built for a different network.
+     */
+    public static long fingerprint(RoadGraph graph, Route.OptimizationType type) {
+        long hash = 1125899906842597L;
+        hash = 31 * hash + graph.nodeCount();
+        hash = 31 * hash + graph.edgeCount();
+        hash = 31 * hash + type.ordinal();
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            hash = 31 * hash + graph.source(edge);
+            hash = 31 * hash + graph.target(edge);
+            hash = 31 * hash + Float.floatToIntBits((float) graph.cost(edge, type));
+        }
+        return hash;
+    }
+
+    /**
+     * Writes the hierarchy to a temporary file next to {@code file} and moves it
+     * into place, so readers never map a partially written file. The temporary
+     * file is written through the channel rather than a mapping, since a file
+     * that is still mapped cannot be moved on every platform.
+     */
+    public void write(Path file) throws IOException {
+        int upCount = upTargets.limit();
+        int downCount = downSources.limit();
+        int edgeCount = firstChildren.limit();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(type.ordinal()).putInt(nodeCount)
+                .putInt(graphEdgeCount).putInt(upCount).putInt(downCount).putInt(edgeCount)
+                .putLong(fingerprint).putLong(0L);
+            putInts(channel, buffer, ranks);
+            putInts(channel, buffer, upOffsets);
+            putInts(channel, buffer, upTargets);
+            putFloats(channel, buffer, upWeights);
+            putInts(channel, buffer, upEdges);
+            putInts(channel, buffer, downOffsets);
+            putInts(channel, buffer, downSources);
+            putFloats(channel, buffer, downWeights);
+            putInts(channel, buffer, downEdges);
+            putInts(channel, buffer, firstChildren);
+            putInts(channel, buffer, secondChildren);
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the graph fingerprint from the header of a hierarchy file without
+     * mapping it.
+     */
+    public static long readFingerprint(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) break;
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a contraction hierarchy file: " + file);
+            }
+            return header.getLong(32);
+        }
+    }
+
+    /**
+     * Maps a hierarchy file read-only. The returned hierarchy reads its arrays
+     * directly from the mapping.
+     */
+    public static ContractionHierarchy map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a contraction hierarchy file: " + file);
+            }
+            Route.OptimizationType type = Route.OptimizationType.values()[buffer.getInt()];
+            int nodeCount = buffer.getInt();
+            int graphEdgeCount = buffer.getInt();
+            int upCount = buffer.getInt();
+            int downCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            long fingerprint = buffer.getLong();
+
+            int[] position = {HEADER_BYTES};
+            return new ContractionHierarchy(type, nodeCount, graphEdgeCount, fingerprint,
+                ints(buffer, position, nodeCount),
+                ints(buffer, position, nodeCount + 1),
+                ints(buffer, position, upCount),
+                floats(buffer, position, upCount),
+                ints(buffer, position, upCount),
+                ints(buffer, position, nodeCount + 1),
+                ints(buffer, position, downCount),
+                floats(buffer, position, downCount),
+                ints(buffer, position, downCount),
+                ints(buffer, position, edgeCount),
+                ints(buffer, position, edgeCount));
+        }
+    }
+
+    private static IntBuffer ints(ByteBuffer buffer, int[] position, int count) {
+        IntBuffer view = buffer.slice(position[0], count * 4).asIntBuffer();
+        position[0] += count * 4;
+        return view;
+    }
+
+    private static FloatBuffer floats(ByteBuffer buffer, int[] position, int count) {
+        FloatBuffer view = buffer.slice(position[0], count * 4).asFloatBuffer();
+        position[0] += count * 4;
+        return view;
+    }
+
+    private static void putInts(FileChannel channel, ByteBuffer buffer, IntBuffer values) throws IOException {
+        for (int i = 0; i < values.limit(); i++) {
+            if (buffer.remaining() < 4) drain(channel, buffer);
+            buffer.putInt(values.get(i));
+        }
+    }
+
+    private static void putFloats(FileChannel channel, ByteBuffer buffer, FloatBuffer values) throws IOException {
+        for (int i = 0; i < values.limit(); i++) {
+            if (buffer.remaining() < 4) drain(channel, buffer);
+            buffer.putFloat(values.get(i));
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,339 @@
+package com.neurofleetx.routing;
+
+import com.neurofleetx.model.Route;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Contracts a {@link RoadGraph} into a {@link ContractionHierarchy} for one
+ * metric. Nodes are contracted in order of edge difference, contracted
+ * neighbours and hierarchy depth, and the priorities of a contracted node's
+ * neighbours are refreshed after each step. A shortcut is only
+ * added when a bounded witness search finds no path around the node that is at
+ * least as cheap.
+ */
+public final class ContractionHierarchyBuilder {
+
+    // Priority estimates use a cheaper witness search than the actual contraction
+    private static final int ESTIMATE_SETTLE_LIMIT = 20;
+    private static final int CONTRACT_SETTLE_LIMIT = 200;
+
+    private final RoadGraph graph;
+    private final Route.OptimizationType type;
+    private final int nodeCount;
+
+    // Hierarchy edges: original road edges first, then shortcuts
+    private int edgeCount;
+    private int[] edgeSources;
+    private int[] edgeTargets;
+    private double[] edgeWeights;
+    private int[] firstChildren;
+    private int[] secondChildren;
+
+    // Adjacency among the nodes that are not contracted yet, as hierarchy edge ids
+    private final EdgeList[] outEdges;
+    private final EdgeList[] inEdges;
+    private final boolean[] contracted;
+    private final int[] contractedNeighbours;
+    private final int[] levels;
+    private final int[] refreshed;
+    private int refreshStamp;
+
+    private final double[] witnessCosts;
+    private final int[] witnessStamps;
+    private final IntDoubleMinHeap witnessHeap;
+    private int witnessStamp;
+
+    private static final class EdgeList {
+        int[] edges = new int[4];
+        int size;
+
+        void add(int edge) {
+            if (size == edges.length) {
+                edges = Arrays.copyOf(edges, size * 2);
+            }
+            edges[size++] = edge;
+        }
+
+        void remove(int index) {
+            edges[index] = edges[--size];
+        }
+    }
+
+    private ContractionHierarchyBuilder(RoadGraph graph, Route.OptimizationType type) {
+        this.graph = graph;
+        this.type = type;
+        this.nodeCount = graph.nodeCount();
+
+        int capacity = Math.max(16, graph.edgeCount() * 2);
+        edgeSources = new int[capacity];
+        edgeTargets = new int[capacity];
+        edgeWeights = new double[capacity];
+        firstChildren = new int[capacity];
+        secondChildren = new int[capacity];
+
+        outEdges = new EdgeList[nodeCount];
+        inEdges = new EdgeList[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            outEdges[node] = new EdgeList();
+            inEdges[node] = new EdgeList();
+        }
+        contracted = new boolean[nodeCount];
+        contractedNeighbours = new int[nodeCount];
+        levels = new int[nodeCount];
+        refreshed = new int[nodeCount];
+
+        witnessCosts = new double[nodeCount];
+        witnessStamps = new int[nodeCount];
+        witnessHeap = new IntDoubleMinHeap(nodeCount);
+    }
+
+    public static ContractionHierarchy build(RoadGraph graph, Route.OptimizationType type) {
+        return new ContractionHierarchyBuilder(graph, type).contract();
+    }
+
+    private ContractionHierarchy contract() {
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            int source = graph.source(edge);
+            int target = graph.target(edge);
+            int id = addEdge(source, target, graph.cost(edge, type), edge, -1);
+            if (source != target) {
+                outEdges[source].add(id);
+                inEdges[target].add(id);
+            }
+        }
+
+        IntDoubleMinHeap queue = new IntDoubleMinHeap(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            queue.insertOrDecrease(node, priority(node));
+        }
+
+        int[] ranks = new int[nodeCount];
+        int rank = 0;
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            contractNode(node);
+            ranks[node] = rank++;
+
+            // Neighbours lost an edge and may have gained shortcuts, so refresh their priorities
+            refreshStamp++;
+            refreshNeighbours(queue, outEdges[node], false);
+            refreshNeighbours(queue, inEdges[node], true);
+        }
+
+        return assemble(ranks);
+    }
+
+    private double priority(int node) {
+        int shortcuts = contractNode(node, false);
+        int removed = outEdges[node].size + inEdges[node].size;
+        return 2.0 * (shortcuts - removed) + contractedNeighbours[node] + levels[node];
+    }
+
+    private void refreshNeighbours(IntDoubleMinHeap queue, EdgeList edges, boolean bySource) {
+        for (int i = 0; i < edges.size; i++) {
+            int edge = edges.edges[i];
+            int neighbour = bySource ? edgeSources[edge] : edgeTargets[edge];
+            if (!contracted[neighbour] && refreshed[neighbour] != refreshStamp) {
+                refreshed[neighbour] = refreshStamp;
+                queue.insertOrUpdate(neighbour, priority(neighbour));
+            }
+        }
+    }
+
+    private void contractNode(int node) {
+        contractNode(node, true);
+        contracted[node] = true;
+
+        EdgeList out = outEdges[node];
+        for (int i = 0; i < out.size; i++) {
+            int neighbour = edgeTargets[out.edges[i]];
+            removeEdge(inEdges[neighbour], node, true);
+            contractedNeighbours[neighbour]++;
+            levels[neighbour] = Math.max(levels[neighbour], levels[node] + 1);
+        }
+        EdgeList in = inEdges[node];
+        for (int i = 0; i < in.size; i++) {
+            int neighbour = edgeSources[in.edges[i]];
+            removeEdge(outEdges[neighbour], node, false);
+            contractedNeighbours[neighbour]++;
+            levels[neighbour] = Math.max(levels[neighbour], levels[node] + 1);
+        }
+    }
+
+    /**
+     * Counts, and when {@code apply} is set adds, the shortcuts needed to remove
+     * {@code node} from the remaining graph.
+     */
+    private int contractNode(int node, boolean apply) {
+        EdgeList in = inEdges[node];
+        EdgeList out = outEdges[node];
+        if (in.size == 0 || out.size == 0) return 0;
+
+        double maxOut = 0;
+        for (int j = 0; j < out.size; j++) {
+            maxOut = Math.max(maxOut, edgeWeights[out.edges[j]]);
+        }
+
+        int shortcuts = 0;
+        for (int i = 0; i < in.size; i++) {
+            int inEdge = in.edges[i];
+            int source = edgeSources[inEdge];
+            double inWeight = edgeWeights[inEdge];
+
+            witnessSearch(source, node, inWeight + maxOut, apply ? CONTRACT_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+            for (int j = 0; j < out.size; j++) {
+                int outEdge = out.edges[j];
+                int target = edgeTargets[outEdge];
+                if (target == source) continue;
+
+                double viaWeight = inWeight + edgeWeights[outEdge];
+                if (witnessStamps[target] == witnessStamp && witnessCosts[target] <= viaWeight) continue;
+
+                shortcuts++;
+                if (apply) {
+                    addShortcut(source, target, viaWeight, inEdge, outEdge);
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Bounded Dijkstra from {@code source} over the uncontracted graph that
+     * avoids {@code excluded}, leaving costs in {@code witnessCosts}.
+     */
+    private void witnessSearch(int source, int excluded, double maxCost, int settleLimit) {
+        witnessStamp++;
+        witnessHeap.clear();
+        witnessStamps[source] = witnessStamp;
+        witnessCosts[source] = 0.0;
+        witnessHeap.insertOrDecrease(source, 0.0);
+
+        int settled = 0;
+        while (!witnessHeap.isEmpty() && settled < settleLimit) {
+            if (witnessHeap.peekKey() > maxCost) break;
+            int node = witnessHeap.poll();
+            settled++;
+
+            EdgeList out = outEdges[node];
+            for (int i = 0; i < out.size; i++) {
+                int edge = out.edges[i];
+                int next = edgeTargets[edge];
+                if (next == excluded) continue;
+
+                double cost = witnessCosts[node] + edgeWeights[edge];
+                if (witnessStamps[next] != witnessStamp || cost < witnessCosts[next]) {
+                    witnessStamps[next] = witnessStamp;
+                    witnessCosts[next] = cost;
+                    witnessHeap.insertOrDecrease(next, cost);
+                }
+            }
+        }
+    }
+
+    private void addShortcut(int source, int target, double weight, int firstChild, int secondChild) {
+        // Replace a parallel edge in place if the shortcut is cheaper, rather than keeping both
+        EdgeList out = outEdges[source];
+        for (int i = 0; i < out.size; i++) {
+            int existing = out.edges[i];
+            if (edgeTargets[existing] == target) {
+                if (edgeWeights[existing] <= weight) return;
+                int id = addEdge(source, target, weight, firstChild, secondChild);
+                out.edges[i] = id;
+                EdgeList in = inEdges[target];
+                for (int j = 0; j < in.size; j++) {
+                    if (in.edges[j] == existing) {
+                        in.edges[j] = id;
+                        break;
+                    }
+                }
+                return;
+            }
+        }
+        int id = addEdge(source, target, weight, firstChild, secondChild);
+        outEdges[source].add(id);
+        inEdges[target].add(id);
+    }
+
+    private void removeEdge(EdgeList list, int neighbour, boolean bySource) {
+        for (int i = list.size - 1; i >= 0; i--) {
+            int edge = list.edges[i];
+            if ((bySource ? edgeSources[edge] : edgeTargets[edge]) == neighbour) {
+                list.remove(i);
+            }
+        }
+    }
+
+    private int addEdge(int source, int target, double weight, int firstChild, int secondChild) {
+        if (edgeCount == edgeSources.length) {
+            int capacity = edgeCount * 2;
+            edgeSources = Arrays.copyOf(edgeSources, capacity);
+            edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+            edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            secondChildren = Arrays.copyOf(secondChildren, capacity);
+        }
+        edgeSources[edgeCount] = source;
+        edgeTargets[edgeCount] = target;
+        edgeWeights[edgeCount] = weight;
+        firstChildren[edgeCount] = firstChild;
+        secondChildren[edgeCount] = secondChild;
+        return edgeCount++;
+    }
+
+    private ContractionHierarchy assemble(int[] ranks) {
+        int[] upOffsets = new int[nodeCount + 1];
+        int[] downOffsets = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int source = edgeSources[edge];
+            int target = edgeTargets[edge];
+            if (source == target) continue;
+            if (ranks[source] < ranks[target]) {
+                upOffsets[source + 1]++;
+            } else {
+                downOffsets[target + 1]++;
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            upOffsets[node + 1] += upOffsets[node];
+            downOffsets[node + 1] += downOffsets[node];
+        }
+
+        int[] upTargets = new int[upOffsets[nodeCount]];
+        float[] upWeights = new float[upTargets.length];
+        int[] upEdges = new int[upTargets.length];
+        int[] downSources = new int[downOffsets[nodeCount]];
+        float[] downWeights = new float[downSources.length];
+        int[] downEdges = new int[downSources.length];
+
+        int[] nextUp = Arrays.copyOf(upOffsets, nodeCount);
+        int[] nextDown = Arrays.copyOf(downOffsets, nodeCount);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int source = edgeSources[edge];
+            int target = edgeTargets[edge];
+            if (source == target) continue;
+            if (ranks[source] < ranks[target]) {
+                int slot = nextUp[source]++;
+                upTargets[slot] = target;
+                upWeights[slot] = (float) edgeWeights[edge];
+                upEdges[slot] = edge;
+            } else {
+                int slot = nextDown[target]++;
+                downSources[slot] = source;
+                downWeights[slot] = (float) edgeWeights[edge];
+                downEdges[slot] = edge;
+            }
+        }
+
+        return new ContractionHierarchy(type, nodeCount, graph.edgeCount(),
+            ContractionHierarchy.fingerprint(graph, type),
+            IntBuffer.wrap(ranks),
+            IntBuffer.wrap(upOffsets), IntBuffer.wrap(upTargets), FloatBuffer.wrap(upWeights), IntBuffer.wrap(upEdges),
+            IntBuffer.wrap(downOffsets), IntBuffer.wrap(downSources), FloatBuffer.wrap(downWeights), IntBuffer.wrap(downEdges),
+            IntBuffer.wrap(Arrays.copyOf(firstChildren, edgeCount)),
+            IntBuffer.wrap(Arrays.copyOf(secondChildren, edgeCount)));
+    }
+}
@@ -0,0 +1,110 @@
+package com.neurofleetx.routing;
+
+import com.neurofleetx.model.Route;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Owns one contraction hierarchy per optimization type. Hierarchies are mapped
+ * from {@code routing.ch.directory} when a file matching the current road graph
+ * exists; otherwise they are built in the background after startup and written
+ * there for the next start. Until a hierarchy is ready, queries for its metric
+ * fall back to A*. FASTEST gets no hierarchy while time-dependent routing is on,
+ * since those queries search the traffic profiles instead.
+ */
+@Component
+@Slf4j
+public class ContractionHierarchyManager {
+
+    @Autowired
+    private RoadGraphLoader roadGraphLoader;
+
+    @Value("${routing.ch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${routing.ch.directory:}")
+    private String directory;
+
+    @Value("${routing.traffic.time-dependent:true}")
+    private boolean timeDependent;
+
+    private final Map<Route.OptimizationType, ContractionHierarchy> hierarchies =
+        new EnumMap<>(Route.OptimizationType.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepare() {
+        if (!enabled) return;
+        Thread worker = new Thread(this::prepareAll, "ch-preprocessing");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Returns the hierarchy for the type if it is ready and matches the given graph.
+     */
+    public synchronized ContractionHierarchy getHierarchy(Route.OptimizationType type, RoadGraph graph) {
+        ContractionHierarchy hierarchy = hierarchies.get(type);
+        return hierarchy != null && hierarchy.nodeCount() == graph.nodeCount() ? hierarchy : null;
+    }
+
+    private void prepareAll() {
+        RoadGraph graph = roadGraphLoader.getGraph();
+        for (Route.OptimizationType type : Route.OptimizationType.values()) {
+            if (type == Route.OptimizationType.FASTEST && timeDependent) continue;
+            try {
+                ContractionHierarchy hierarchy = loadOrBuild(graph, type);
+                synchronized (this) {
+                    hierarchies.put(type, hierarchy);
+                }
+            } catch (Exception e) {
+                log.warn("Contraction hierarchy for {} unavailable: {}", type, e.getMessage());
+            }
+        }
+    }
+
+    private ContractionHierarchy loadOrBuild(RoadGraph graph, Route.OptimizationType type) {
+        long fingerprint = ContractionHierarchy.fingerprint(graph, type);
+        Path file = directory.isBlank() ? null : Path.of(directory, "ch-" + type.name().toLowerCase() + ".bin");
+
+        if (file != null && Files.exists(file)) {
+            try {
+                // Only the header is read, so a stale file is never mapped and can be replaced
+                if (ContractionHierarchy.readFingerprint(file) == fingerprint) {
+                    ContractionHierarchy mapped = ContractionHierarchy.map(file);
+                    log.info("Mapped contraction hierarchy for {} from {}", type, file);
+                    return mapped;
+                }
+                log.info("Contraction hierarchy file {} is stale, rebuilding", file);
+            } catch (IOException e) {
+                log.warn("Could not map contraction hierarchy file {}: {}", file, e.getMessage());
+            }
+        }
+
+        long started = System.currentTimeMillis();
+        ContractionHierarchy built = ContractionHierarchyBuilder.build(graph, type);
+        log.info("Built contraction hierarchy for {} with {} shortcuts in {} ms",
+            type, built.shortcutCount(), System.currentTimeMillis() - started);
+
+        if (file == null) {
+            return built;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            built.write(file);
+            return ContractionHierarchy.map(file);
+        } catch (IOException e) {
+            log.warn("Could not store contraction hierarchy for {} in {}: {}", type, file, e.getMessage());
+            return built;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.neurofleetx.routing;
+
+import java.util.Arrays;
+
+/**
+ * Reusable bidirectional query over a {@link ContractionHierarchy}. Both
+ * searches only relax edges towards higher-ranked nodes and the query stops once
+ * neither queue can improve on the best meeting point. The hierarchy path is
+ * then unpacked into the underlying road edges.
+ */
+public final class ContractionHierarchyQuery {
+
+    private final int nodeCount;
+    private final double[] forwardCosts;
+    private final double[] backwardCosts;
+    private final int[] forwardParents;
+    private final int[] backwardParents;
+    private final int[] forwardPrevious;
+    private final int[] backwardNext;
+    private final int[] forwardStamps;
+    private final int[] backwardStamps;
+    private final IntDoubleMinHeap forwardHeap;
+    private final IntDoubleMinHeap backwardHeap;
+    private int stamp;
+    private int settledCount;
+    private int[] unpackStack = new int[64];
+
+    public ContractionHierarchyQuery(int nodeCount) {
+        this.nodeCount = nodeCount;
+        forwardCosts = new double[nodeCount];
+        backwardCosts = new double[nodeCount];
+        forwardParents = new int[nodeCount];
+        backwardParents = new int[nodeCount];
+        forwardPrevious = new int[nodeCount];
+        backwardNext = new int[nodeCount];
+        forwardStamps = new int[nodeCount];
+        backwardStamps = new int[nodeCount];
+        forwardHeap = new IntDoubleMinHeap(nodeCount);
+        backwardHeap = new IntDoubleMinHeap(nodeCount);
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Number of nodes settled by both directions of the last query.
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Returns the road edges from source to target in order, or {@code null} when
+     * the target cannot be reached.
+     */
+    public int[] shortestPath(ContractionHierarchy hierarchy, int source, int target) {
+        reset();
+        forwardStamps[source] = stamp;
+        forwardCosts[source] = 0.0;
+        forwardParents[source] = -1;
+        forwardHeap.insertOrDecrease(source, 0.0);
+        backwardStamps[target] = stamp;
+        backwardCosts[target] = 0.0;
+        backwardParents[target] = -1;
+        backwardHeap.insertOrDecrease(target, 0.0);
+
+        double best = source == target ? 0.0 : Double.MAX_VALUE;
+        int meeting = source == target ? source : -1;
+
+        while (true) {
+            boolean forwardActive = !forwardHeap.isEmpty() && forwardHeap.peekKey() < best;
+            boolean backwardActive = !backwardHeap.isEmpty() && backwardHeap.peekKey() < best;
+            if (!forwardActive && !backwardActive) break;
+
+            if (forwardActive && (!backwardActive || forwardHeap.peekKey() <= backwardHeap.peekKey())) {
+                int node = forwardHeap.poll();
+                settledCount++;
+                double cost = forwardCosts[node];
+                if (backwardStamps[node] == stamp && cost + backwardCosts[node] < best) {
+                    best = cost + backwardCosts[node];
+                    meeting = node;
+                }
+                for (int i = hierarchy.firstUpEdge(node); i < hierarchy.lastUpEdge(node); i++) {
+                    int next = hierarchy.upTarget(i);
+                    double newCost = cost + hierarchy.upWeight(i);
+                    if (forwardStamps[next] != stamp || newCost < forwardCosts[next]) {
+                        forwardStamps[next] = stamp;
+                        forwardCosts[next] = newCost;
+                        forwardParents[next] = hierarchy.upEdge(i);
+                        forwardPrevious[next] = node;
+                        forwardHeap.insertOrDecrease(next, newCost);
+                    }
+                }
+            } else {
+                int node = backwardHeap.poll();
+                settledCount++;
+                double cost = backwardCosts[node];
+                if (forwardStamps[node] == stamp && cost + forwardCosts[node] < best) {
+                    best = cost + forwardCosts[node];
+                    meeting = node;
+                }
+                for (int i = hierarchy.firstDownEdge(node); i < hierarchy.lastDownEdge(node); i++) {
+                    int previous = hierarchy.downSource(i);
+                    double newCost = cost + hierarchy.downWeight(i);
+                    if (backwardStamps[previous] != stamp || newCost < backwardCosts[previous]) {
+                        backwardStamps[previous] = stamp;
+                        backwardCosts[previous] = newCost;
+                        backwardParents[previous] = hierarchy.downEdge(i);
+                        backwardNext[previous] = node;
+                        backwardHeap.insertOrDecrease(previous, newCost);
+                    }
+                }
+            }
+        }
+
+        if (meeting < 0) return null;
+        return unpack(hierarchy, meeting);
+    }
+
+    private int[] unpack(ContractionHierarchy hierarchy, int meeting) {
+        // Hierarchy edges from source to meeting point, then meeting point to target
+        int[] chain = new int[16];
+        int chainLength = 0;
+        for (int node = meeting; forwardParents[node] >= 0; node = forwardPrevious[node]) {
+            if (chainLength == chain.length) chain = Arrays.copyOf(chain, chainLength * 2);
+            chain[chainLength++] = forwardParents[node];
+        }
+        for (int i = 0, j = chainLength - 1; i < j; i++, j--) {
+            int swap = chain[i];
+            chain[i] = chain[j];
+            chain[j] = swap;
+        }
+        for (int node = meeting; backwardParents[node] >= 0; node = backwardNext[node]) {
+            if (chainLength == chain.length) chain = Arrays.copyOf(chain, chainLength * 2);
+            chain[chainLength++] = backwardParents[node];
+        }
+
+        int[] path = new int[Math.max(16, chainLength * 4)];
+        int length = 0;
+        for (int c = 0; c < chainLength; c++) {
+            int top = 0;
+            unpackStack[top++] = chain[c];
+            while (top > 0) {
+                int edge = unpackStack[--top];
+                int second = hierarchy.secondChild(edge);
+                if (second < 0) {
+                    if (length == path.length) path = Arrays.copyOf(path, length * 2);
+                    path[length++] = hierarchy.firstChild(edge);
+                } else {
+                    if (top + 2 > unpackStack.length) unpackStack = Arrays.copyOf(unpackStack, unpackStack.length * 2);
+                    unpackStack[top++] = second;
+                    unpackStack[top++] = hierarchy.firstChild(edge);
+                }
+            }
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    private void reset() {
+        forwardHeap.clear();
+        backwardHeap.clear();
+        settledCount = 0;
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(forwardStamps, 0);
+            Arrays.fill(backwardStamps, 0);
+            stamp = 1;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.neurofleetx.routing;
+
+/**
+ * Binary min-heap of int ids keyed by double priorities, with decrease-key.
+ * Ids must be below the capacity given at construction. Clearing is O(1): an
+ * id counts as queued only while its recorded slot still holds it.
+ */
+public final class IntDoubleMinHeap {
+
+    private final int[] ids;
+    private final double[] keys;
+    private final int[] positions;
+    private int size;
+
+    public IntDoubleMinHeap(int capacity) {
+        ids = new int[capacity];
+        keys = new double[capacity];
+        positions = new int[capacity];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(int id) {
+        int position = positions[id];
+        return position < size && ids[position] == id;
+    }
+
+    public double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Inserts the id, or lowers its key if it is already queued with a higher one.
+     */
+    public void insertOrDecrease(int id, double key) {
+        if (contains(id)) {
+            int position = positions[id];
+            if (key < keys[position]) {
+                keys[position] = key;
+                siftUp(position);
+            }
+            return;
+        }
+        ids[size] = id;
+        keys[size] = key;
+        positions[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Inserts the id, or moves it to the new key in either direction.
+     */
+    public void insertOrUpdate(int id, double key) {
+        if (!contains(id)) {
+            insertOrDecrease(id, key);
+            return;
+        }
+        int position = positions[id];
+        double previous = keys[position];
+        keys[position] = key;
+        if (key < previous) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    public int poll() {
+        int top = ids[0];
+        size--;
+        if (size > 0) {
+            move(size, 0);
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int position) {
+        int id = ids[position];
+        double key = keys[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            move(parent, position);
+            position = parent;
+        }
+        ids[position] = id;
+        keys[position] = key;
+        positions[id] = position;
+    }
+
+    private void siftDown(int position) {
+        int id = ids[position];
+        double key = keys[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) break;
+            move(child, position);
+            position = child;
+        }
+        ids[position] = id;
+        keys[position] = key;
+        positions[id] = position;
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        keys[to] = keys[from];
+        positions[ids[to]] = to;
+    }
+}
@@ -0,0 +1,305 @@
+package com.neurofleetx.routing;
+
+import com.neurofleetx.model.Route;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Reusable k-shortest loopless paths search over a {@link RoadGraph}, using
+ * Yen's algorithm adapted for diverse alternatives. One reverse search from the
+ * target builds a shortest-path tree with the exact remaining cost of every
+ * node. Spur paths then follow that tree directly when it avoids the removed
+ * nodes and edges, and otherwise run A* with the tree costs as heuristic, so
+ * each spur search stays close to its answer.
+ *
+ * <p>Plain Yen enumerates every one-block detour of the shortest path before a
+ * genuinely different route on grid-like networks. Here only returned paths are
+ * expanded, spur paths may not reuse any edge of a returned path, and candidates
+ * that share too much of their length with a returned path are dropped.
+ */
+public final class KShortestPaths {
+
+    private final RoadGraph graph;
+    private final double[] remaining;
+    private final int[] treeEdges;
+    private final int[] treeReached;
+    private final double[] costs;
+    private final int[] parentEdges;
+    private final int[] reached;
+    private final int[] settled;
+    private final int[] blockedNodes;
+    private final int[] blockedEdges;
+    private final int[] markedEdges;
+    private final IntDoubleMinHeap heap;
+    private int treeStamp;
+    private int stamp;
+    private int blockStamp;
+    private int markStamp;
+
+    private static final class Path implements Comparable<Path> {
+        final int[] edges;
+        final double cost;
+        final int hash;
+
+        Path(int[] edges, double cost) {
+            this.edges = edges;
+            this.cost = cost;
+            this.hash = Arrays.hashCode(edges);
+        }
+
+        @Override
+        public int compareTo(Path other) {
+            return Double.compare(cost, other.cost);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Path && Arrays.equals(edges, ((Path) other).edges);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public KShortestPaths(RoadGraph graph) {
+        this.graph = graph;
+        int nodeCount = graph.nodeCount();
+        remaining = new double[nodeCount];
+        treeEdges = new int[nodeCount];
+        treeReached = new int[nodeCount];
+        costs = new double[nodeCount];
+        parentEdges = new int[nodeCount];
+        reached = new int[nodeCount];
+        settled = new int[nodeCount];
+        blockedNodes = new int[nodeCount];
+        blockedEdges = new int[graph.edgeCount()];
+        markedEdges = new int[graph.edgeCount()];
+        heap = new IntDoubleMinHeap(nodeCount);
+    }
+
+    public RoadGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns up to {@code k} loopless paths from source to target in order of
+     * cost, each as its edges in order. Paths sharing more than
+     * {@code maxSimilarity} of their distance with a returned path are dropped.
+     */
+    public List<int[]> find(int source, int target, Route.OptimizationType type, int k, double maxSimilarity) {
+        List<int[]> result = new ArrayList<>();
+        if (k <= 0) return result;
+
+        buildTree(target, type);
+        if (treeReached[source] != treeStamp) return result;
+
+        List<Path> accepted = new ArrayList<>();
+        PriorityQueue<Path> candidates = new PriorityQueue<>();
+        Set<Path> seen = new HashSet<>();
+
+        Path shortest = new Path(treePath(source, target), remaining[source]);
+        seen.add(shortest);
+        accepted.add(shortest);
+        result.add(shortest.edges);
+
+        while (result.size() < k) {
+            Path last = accepted.get(accepted.size() - 1);
+            int spurNode = source;
+            double rootCost = 0.0;
+            for (int i = 0; i < last.edges.length; i++) {
+                block(accepted, last, i, source);
+                int[] spur = spurPath(spurNode, target, type);
+                if (spur != null) {
+                    int[] edges = Arrays.copyOf(last.edges, i + spur.length);
+                    System.arraycopy(spur, 0, edges, i, spur.length);
+                    Path candidate = new Path(edges, rootCost + pathCost(spur, type));
+                    if (seen.add(candidate) && isDistinct(edges, result, maxSimilarity)) {
+                        candidates.add(candidate);
+                    }
+                }
+                rootCost += graph.cost(last.edges[i], type);
+                spurNode = graph.target(last.edges[i]);
+            }
+
+            // Candidates queued before the last acceptance may overlap it too much
+            Path next = candidates.poll();
+            while (next != null && !isDistinct(next.edges, result, maxSimilarity)) {
+                next = candidates.poll();
+            }
+            if (next == null) break;
+            accepted.add(next);
+            result.add(next.edges);
+        }
+        return result;
+    }
+
+    /**
+     * Reverse Dijkstra from the target, recording for every node the cost to the
+     * target and the first edge of that shortest path.
+     */
+    private void buildTree(int target, Route.OptimizationType type) {
+        heap.clear();
+        if (++treeStamp == Integer.MAX_VALUE) {
+            Arrays.fill(treeReached, 0);
+            treeStamp = 1;
+        }
+        treeReached[target] = treeStamp;
+        remaining[target] = 0.0;
+        treeEdges[target] = -1;
+        heap.insertOrDecrease(target, 0.0);
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            double nodeCost = remaining[node];
+            for (int i = graph.firstInEdge(node); i < graph.lastInEdge(node); i++) {
+                int edge = graph.inEdge(i);
+                int previous = graph.source(edge);
+                double newCost = nodeCost + graph.cost(edge, type);
+                if (treeReached[previous] != treeStamp || newCost < remaining[previous]) {
+                    treeReached[previous] = treeStamp;
+                    remaining[previous] = newCost;
+                    treeEdges[previous] = edge;
+                    heap.insertOrDecrease(previous, newCost);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the root path's nodes before the spur position and every edge of the
+     * accepted paths for the upcoming spur search.
+     */
+    private void block(List<Path> accepted, Path last, int position, int source) {
+        if (++blockStamp == Integer.MAX_VALUE) {
+            Arrays.fill(blockedNodes, 0);
+            Arrays.fill(blockedEdges, 0);
+            blockStamp = 1;
+        }
+        if (position > 0) {
+            blockedNodes[source] = blockStamp;
+            for (int i = 0; i < position - 1; i++) {
+                blockedNodes[graph.target(last.edges[i])] = blockStamp;
+            }
+        }
+        for (Path path : accepted) {
+            for (int edge : path.edges) {
+                blockedEdges[edge] = blockStamp;
+            }
+        }
+    }
+
+    private int[] spurPath(int spurNode, int target, Route.OptimizationType type) {
+        if (treeReached[spurNode] != treeStamp) return null;
+
+        // The tree path is optimal whenever the removals leave it intact
+        boolean treeUsable = true;
+        for (int node = spurNode; node != target; node = graph.target(treeEdges[node])) {
+            int edge = treeEdges[node];
+            if (blockedEdges[edge] == blockStamp || blockedNodes[graph.target(edge)] == blockStamp) {
+                treeUsable = false;
+                break;
+            }
+        }
+        if (treeUsable) return treePath(spurNode, target);
+
+        heap.clear();
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            stamp = 1;
+        }
+        reached[spurNode] = stamp;
+        costs[spurNode] = 0.0;
+        parentEdges[spurNode] = -1;
+        heap.insertOrDecrease(spurNode, remaining[spurNode]);
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            settled[node] = stamp;
+            if (node == target) {
+                return searchPath(spurNode, target);
+            }
+
+            double nodeCost = costs[node];
+            for (int edge = graph.firstEdge(node); edge < graph.lastEdge(node); edge++) {
+                int next = graph.target(edge);
+                if (settled[next] == stamp || treeReached[next] != treeStamp
+                        || blockedEdges[edge] == blockStamp || blockedNodes[next] == blockStamp) {
+                    continue;
+                }
+                double newCost = nodeCost + graph.cost(edge, type);
+                if (reached[next] != stamp || newCost < costs[next]) {
+                    reached[next] = stamp;
+                    costs[next] = newCost;
+                    parentEdges[next] = edge;
+                    heap.insertOrDecrease(next, newCost + remaining[next]);
+                }
+            }
+        }
+        return null;
+    }
+
+    private int[] treePath(int from, int target) {
+        int length = 0;
+        for (int node = from; node != target; node = graph.target(treeEdges[node])) {
+            length++;
+        }
+        int[] edges = new int[length];
+        int index = 0;
+        for (int node = from; node != target; node = graph.target(treeEdges[node])) {
+            edges[index++] = treeEdges[node];
+        }
+        return edges;
+    }
+
+    private int[] searchPath(int from, int target) {
+        int length = 0;
+        for (int node = target; node != from; node = graph.source(parentEdges[node])) {
+            length++;
+        }
+        int[] edges = new int[length];
+        for (int node = target; node != from; node = graph.source(parentEdges[node])) {
+            edges[--length] = parentEdges[node];
+        }
+        return edges;
+    }
+
+    private double pathCost(int[] edges, Route.OptimizationType type) {
+        double cost = 0.0;
+        for (int edge : edges) {
+            cost += graph.cost(edge, type);
+        }
+        return cost;
+    }
+
+    private boolean isDistinct(int[] candidate, List<int[]> accepted, double maxSimilarity) {
+        double length = 0.0;
+        for (int edge : candidate) {
+            length += graph.distance(edge);
+        }
+        if (length <= 0.0) return true;
+
+        for (int[] path : accepted) {
+            if (++markStamp == Integer.MAX_VALUE) {
+                Arrays.fill(markedEdges, 0);
+                markStamp = 1;
+            }
+            for (int edge : path) {
+                markedEdges[edge] = markStamp;
+            }
+            double shared = 0.0;
+            for (int edge : candidate) {
+                if (markedEdges[edge] == markStamp) shared += graph.distance(edge);
+            }
+            if (shared / length > maxSimilarity) return false;
+        }
+        return true;
+    }
+}
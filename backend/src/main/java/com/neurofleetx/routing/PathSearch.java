@@ -0,0 +1,234 @@
+package com.neurofleetx.routing;
+
+import com.neurofleetx.model.Route;
+
+import java.util.Arrays;
+
+/**
+ * Reusable point-to-point and one-to-many search over a {@link RoadGraph}. Costs and parent
+ * edges live in flat arrays that are invalidated by bumping a stamp rather than
+ * cleared, so a workspace can be kept per thread and reused across queries.
+ * The path is rebuilt from the parent edges only once the target is settled.
+ */
+public final class PathSearch {
+
+    private final RoadGraph graph;
+    private final double[] costs;
+    private final int[] parentEdges;
+    private final int[] reached;
+    private final int[] settled;
+    private final int[] targets;
+    private final IntDoubleMinHeap heap;
+    private int stamp;
+    private int settledCount;
+
+    public PathSearch(RoadGraph graph) {
+        this.graph = graph;
+        int nodeCount = graph.nodeCount();
+        costs = new double[nodeCount];
+        parentEdges = new int[nodeCount];
+        reached = new int[nodeCount];
+        settled = new int[nodeCount];
+        targets = new int[nodeCount];
+        heap = new IntDoubleMinHeap(nodeCount);
+    }
+
+    public RoadGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Runs Dijkstra, or A* with {@link RoadGraph#lowerBound} when goal-directed,
+     * and returns the edges from source to target in order, or {@code null} when
+     * the target cannot be reached.
+     */
+    public int[] shortestPath(int source, int target, Route.OptimizationType type, boolean goalDirected) {
+        reset();
+
+        reach(source, 0.0, -1);
+        heap.insertOrDecrease(source, goalDirected ? graph.lowerBound(source, target, type) : 0.0);
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            settled[node] = stamp;
+            settledCount++;
+            if (node == target) {
+                return pathTo(target);
+            }
+
+            double nodeCost = costs[node];
+            for (int edge = graph.firstEdge(node); edge < graph.lastEdge(node); edge++) {
+                int next = graph.target(edge);
+                if (settled[next] == stamp) continue;
+
+                double newCost = nodeCost + graph.cost(edge, type);
+                if (reached[next] != stamp || newCost < costs[next]) {
+                    reach(next, newCost, edge);
+                    heap.insertOrDecrease(next, goalDirected ? newCost + graph.lowerBound(next, target, type) : newCost);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Time-dependent fastest path: every edge is costed with its travel time at the
+     * minute of the day the search expects to enter it, starting from
+     * {@code departureMinute}. Goal direction uses the free-flow lower bound.
+     */
+    public int[] fastestPath(int source, int target, TrafficProfiles profiles, double departureMinute,
+                             boolean goalDirected) {
+        reset();
+
+        reach(source, 0.0, -1);
+        heap.insertOrDecrease(source, goalDirected ? graph.freeFlowLowerBound(source, target) : 0.0);
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            settled[node] = stamp;
+            settledCount++;
+            if (node == target) {
+                return pathTo(target);
+            }
+
+            double elapsed = costs[node];
+            for (int edge = graph.firstEdge(node); edge < graph.lastEdge(node); edge++) {
+                int next = graph.target(edge);
+                if (settled[next] == stamp) continue;
+
+                double arrival = elapsed + profiles.travelTime(edge, departureMinute + elapsed);
+                if (reached[next] != stamp || arrival < costs[next]) {
+                    reach(next, arrival, edge);
+                    heap.insertOrDecrease(next, goalDirected ? arrival + graph.freeFlowLowerBound(next, target) : arrival);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs Dijkstra from the source until every target node is settled, leaving a
+     * shortest-path tree that covers them. Targets that cannot be reached report
+     * {@code false} from {@link #isSettled}.
+     */
+    public void shortestPathTree(int source, int[] targetNodes, Route.OptimizationType type) {
+        reset();
+
+        int remaining = markTargets(targetNodes);
+        reach(source, 0.0, -1);
+        heap.insertOrDecrease(source, 0.0);
+
+        while (!heap.isEmpty() && remaining > 0) {
+            int node = heap.poll();
+            settled[node] = stamp;
+            settledCount++;
+            if (targets[node] == stamp) remaining--;
+
+            double nodeCost = costs[node];
+            for (int edge = graph.firstEdge(node); edge < graph.lastEdge(node); edge++) {
+                int next = graph.target(edge);
+                if (settled[next] == stamp) continue;
+
+                double newCost = nodeCost + graph.cost(edge, type);
+                if (reached[next] != stamp || newCost < costs[next]) {
+                    reach(next, newCost, edge);
+                    heap.insertOrDecrease(next, newCost);
+                }
+            }
+        }
+    }
+
+    /**
+     * Time-dependent variant of {@link #shortestPathTree}: edges are costed with
+     * their travel time at the minute the search expects to enter them, so the
+     * cost of a settled target is its arrival time after {@code departureMinute}.
+     */
+    public void fastestPathTree(int source, int[] targetNodes, TrafficProfiles profiles, double departureMinute) {
+        reset();
+
+        int remaining = markTargets(targetNodes);
+        reach(source, 0.0, -1);
+        heap.insertOrDecrease(source, 0.0);
+
+        while (!heap.isEmpty() && remaining > 0) {
+            int node = heap.poll();
+            settled[node] = stamp;
+            settledCount++;
+            if (targets[node] == stamp) remaining--;
+
+            double elapsed = costs[node];
+            for (int edge = graph.firstEdge(node); edge < graph.lastEdge(node); edge++) {
+                int next = graph.target(edge);
+                if (settled[next] == stamp) continue;
+
+                double arrival = elapsed + profiles.travelTime(edge, departureMinute + elapsed);
+                if (reached[next] != stamp || arrival < costs[next]) {
+                    reach(next, arrival, edge);
+                    heap.insertOrDecrease(next, arrival);
+                }
+            }
+        }
+    }
+
+    public boolean isSettled(int node) {
+        return settled[node] == stamp;
+    }
+
+    /**
+     * Edge the last search reached the node through, or -1 for its source.
+     */
+    public int parentEdge(int node) {
+        return parentEdges[node];
+    }
+
+    public double cost(int node) {
+        return reached[node] == stamp ? costs[node] : Double.MAX_VALUE;
+    }
+
+    /**
+     * Number of nodes settled by the last search.
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+
+    private int markTargets(int[] targetNodes) {
+        int remaining = 0;
+        for (int target : targetNodes) {
+            if (targets[target] != stamp) {
+                targets[target] = stamp;
+                remaining++;
+            }
+        }
+        return remaining;
+    }
+
+    private void reach(int node, double cost, int parentEdge) {
+        reached[node] = stamp;
+        costs[node] = cost;
+        parentEdges[node] = parentEdge;
+    }
+
+    private int[] pathTo(int target) {
+        int length = 0;
+        for (int node = target; parentEdges[node] >= 0; node = graph.source(parentEdges[node])) {
+            length++;
+        }
+        int[] edges = new int[length];
+        for (int node = target; parentEdges[node] >= 0; node = graph.source(parentEdges[node])) {
+            edges[--length] = parentEdges[node];
+        }
+        return edges;
+    }
+
+    private void reset() {
+        heap.clear();
+        settledCount = 0;
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            Arrays.fill(targets, 0);
+            stamp = 1;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.neurofleetx.routing;
+
+import com.neurofleetx.model.Route;
+
+import java.util.Arrays;
+
+/**
+ * Immutable road network in compressed sparse row form. The outgoing edges of
+ * node {@code n} are {@code offsets[n] .. offsets[n + 1] - 1}, and the same
+ * edge ids are indexed by target in {@code inOffsets}/{@code inEdges} for
+ * backward searches. Instances are built once by {@link RoadGraphLoader} and
+ * shared by all route searches.
+ */
+public final class RoadGraph {
+
+    private static final double INDEX_CELL_DEGREES = 0.01;
+    private static final int MAX_INDEX_RINGS = 50;
+
+    private final String[] names;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] targets;
+    private final float[] distances;
+    private final float[] times;
+    private final float[] energies;
+    private final float[] trafficFactors;
+
+    private final int[] inOffsets;
+    private final int[] inEdges;
+
+    // Smallest cost per straight-line km of any edge, indexed by optimization type
+    private final double[] minCostPerKm;
+
+    // Smallest traffic-free travel time per straight-line km of any edge
+    private final double minTimePerKm;
+
+    // Nodes sorted by spatial cell, for nearest-node lookups
+    private final long[] cellKeys;
+    private final int[] cellNodes;
+
+    private RoadGraph(Builder builder) {
+        int nodeCount = builder.nodeCount;
+        int edgeCount = builder.edgeCount;
+
+        names = Arrays.copyOf(builder.names, nodeCount);
+        latitudes = Arrays.copyOf(builder.latitudes, nodeCount);
+        longitudes = Arrays.copyOf(builder.longitudes, nodeCount);
+
+        offsets = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[builder.edgeSources[e] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            offsets[n + 1] += offsets[n];
+        }
+
+        sources = new int[edgeCount];
+        targets = new int[edgeCount];
+        distances = new float[edgeCount];
+        times = new float[edgeCount];
+        energies = new float[edgeCount];
+        trafficFactors = new float[edgeCount];
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int slot = next[builder.edgeSources[e]]++;
+            sources[slot] = builder.edgeSources[e];
+            targets[slot] = builder.edgeTargets[e];
+            distances[slot] = builder.edgeDistances[e];
+            times[slot] = builder.edgeTimes[e];
+            energies[slot] = builder.edgeEnergies[e];
+            trafficFactors[slot] = builder.edgeTrafficFactors[e];
+        }
+
+        inOffsets = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            inOffsets[targets[e] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            inOffsets[n + 1] += inOffsets[n];
+        }
+        inEdges = new int[edgeCount];
+        next = Arrays.copyOf(inOffsets, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            inEdges[next[targets[e]]++] = e;
+        }
+
+        minCostPerKm = new double[Route.OptimizationType.values().length];
+        for (Route.OptimizationType type : Route.OptimizationType.values()) {
+            double min = Double.MAX_VALUE;
+            for (int e = 0; e < edgeCount; e++) {
+                double straight = haversineKm(latitudes[sources[e]], longitudes[sources[e]],
+                    latitudes[targets[e]], longitudes[targets[e]]);
+                if (straight > 0) {
+                    min = Math.min(min, cost(e, type) / straight);
+                }
+            }
+            // Slack absorbs float rounding of the stored edge weights
+            minCostPerKm[type.ordinal()] = min == Double.MAX_VALUE ? 0.0 : min * 0.999;
+        }
+        double minTime = Double.MAX_VALUE;
+        for (int e = 0; e < edgeCount; e++) {
+            double straight = haversineKm(latitudes[sources[e]], longitudes[sources[e]],
+                latitudes[targets[e]], longitudes[targets[e]]);
+            if (straight > 0) {
+                minTime = Math.min(minTime, times[e] / straight);
+            }
+        }
+        minTimePerKm = minTime == Double.MAX_VALUE ? 0.0 : minTime * 0.999;
+
+        long[] keyed = new long[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            keyed[n] = cellKey(latitudes[n], longitudes[n]);
+        }
+        Integer[] order = new Integer[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            order[n] = n;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keyed[a], keyed[b]));
+        cellKeys = new long[nodeCount];
+        cellNodes = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            cellNodes[i] = order[i];
+            cellKeys[i] = keyed[order[i]];
+        }
+    }
+
+    public int nodeCount() {
+        return latitudes.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public String name(int node) {
+        return names[node];
+    }
+
+    public double latitude(int node) {
+        return latitudes[node];
+    }
+
+    public double longitude(int node) {
+        return longitudes[node];
+    }
+
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    public int lastEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int firstInEdge(int node) {
+        return inOffsets[node];
+    }
+
+    public int lastInEdge(int node) {
+        return inOffsets[node + 1];
+    }
+
+    public int inEdge(int index) {
+        return inEdges[index];
+    }
+
+    public int source(int edge) {
+        return sources[edge];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public float distance(int edge) {
+        return distances[edge];
+    }
+
+    public float time(int edge) {
+        return times[edge];
+    }
+
+    public float energy(int edge) {
+        return energies[edge];
+    }
+
+    public float trafficFactor(int edge) {
+        return trafficFactors[edge];
+    }
+
+    /**
+     * Travel time in minutes including the edge's typical traffic delay.
+     */
+    public double travelTime(int edge) {
+        return times[edge] * (1 + trafficFactors[edge]);
+    }
+
+    public double cost(int edge, Route.OptimizationType type) {
+        return switch (type) {
+            case FASTEST -> travelTime(edge);
+            case ENERGY_EFFICIENT -> energies[edge];
+            case BALANCED -> times[edge] * 0.5 + distances[edge] * 0.3 + energies[edge] * 0.2;
+            case SHORTEST -> distances[edge];
+        };
+    }
+
+    /**
+     * Lower bound on the cost of travelling from {@code node} to {@code target}
+     * under the given metric, for goal-directed searches.
+     */
+    public double lowerBound(int node, int target, Route.OptimizationType type) {
+        return haversineKm(latitudes[node], longitudes[node], latitudes[target], longitudes[target])
+            * minCostPerKm[type.ordinal()];
+    }
+
+    /**
+     * Lower bound in minutes on the travel time from {@code node} to
+     * {@code target} at any time of day, since traffic only ever slows an edge
+     * down from its free-flow time.
+     */
+    public double freeFlowLowerBound(int node, int target) {
+        return haversineKm(latitudes[node], longitudes[node], latitudes[target], longitudes[target])
+            * minTimePerKm;
+    }
+
+    /**
+     * Returns the node closest to the given position, searching outwards ring by
+     * ring over the spatial cells until a ring can no longer contain a closer node.
+     * Positions far outside the network fall back to a linear scan.
+     */
+    public int nearestNode(double latitude, double longitude) {
+        if (nodeCount() == 0) {
+            throw new RuntimeException("Road graph is empty");
+        }
+        long row = (long) Math.floor((latitude + 90.0) / INDEX_CELL_DEGREES);
+        long column = (long) Math.floor((longitude + 180.0) / INDEX_CELL_DEGREES);
+
+        double lonScale = Math.cos(Math.toRadians(latitude));
+
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int ring = 0; ring <= MAX_INDEX_RINGS; ring++) {
+            for (long r = row - ring; r <= row + ring; r++) {
+                for (long c = column - ring; c <= column + ring; c++) {
+                    if (Math.abs(r - row) != ring && Math.abs(c - column) != ring) continue;
+                    long key = (r << 32) | (c & 0xffffffffL);
+                    for (int i = firstCellIndex(key); i < cellKeys.length && cellKeys[i] == key; i++) {
+                        int node = cellNodes[i];
+                        double d = squaredDegrees(latitude, longitude, latitudes[node], longitudes[node]);
+                        if (d < bestDistance) {
+                            bestDistance = d;
+                            best = node;
+                        }
+                    }
+                }
+            }
+            // Every unvisited cell is at least ring cells away
+            if (best >= 0 && Math.sqrt(bestDistance) <= ring * INDEX_CELL_DEGREES * lonScale) {
+                return best;
+            }
+        }
+
+        for (int node = 0; node < nodeCount(); node++) {
+            double d = squaredDegrees(latitude, longitude, latitudes[node], longitudes[node]);
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    private int firstCellIndex(long key) {
+        int low = 0;
+        int high = cellKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cellKeys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        final int R = 6371;
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return R * c;
+    }
+
+    private static double squaredDegrees(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = lat1 - lat2;
+        double dLon = (lon1 - lon2) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        return dLat * dLat + dLon * dLon;
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        long row = (long) Math.floor((latitude + 90.0) / INDEX_CELL_DEGREES);
+        long column = (long) Math.floor((longitude + 180.0) / INDEX_CELL_DEGREES);
+        return (row << 32) | (column & 0xffffffffL);
+    }
+
+    public static class Builder {
+        private int nodeCount;
+        private String[] names = new String[1024];
+        private double[] latitudes = new double[1024];
+        private double[] longitudes = new double[1024];
+
+        private int edgeCount;
+        private int[] edgeSources = new int[4096];
+        private int[] edgeTargets = new int[4096];
+        private float[] edgeDistances = new float[4096];
+        private float[] edgeTimes = new float[4096];
+        private float[] edgeEnergies = new float[4096];
+        private float[] edgeTrafficFactors = new float[4096];
+
+        public int addNode(String name, double latitude, double longitude) {
+            if (nodeCount == latitudes.length) {
+                int capacity = nodeCount * 2;
+                names = Arrays.copyOf(names, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+            }
+            names[nodeCount] = name;
+            latitudes[nodeCount] = latitude;
+            longitudes[nodeCount] = longitude;
+            return nodeCount++;
+        }
+
+        public void addEdge(int source, int target, double distanceKm, double timeMinutes,
+                            double energy, double trafficFactor) {
+            if (source < 0 || source >= nodeCount || target < 0 || target >= nodeCount) {
+                throw new RuntimeException("Edge references unknown node: " + source + " -> " + target);
+            }
+            if (edgeCount == edgeSources.length) {
+                int capacity = edgeCount * 2;
+                edgeSources = Arrays.copyOf(edgeSources, capacity);
+                edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+                edgeDistances = Arrays.copyOf(edgeDistances, capacity);
+                edgeTimes = Arrays.copyOf(edgeTimes, capacity);
+                edgeEnergies = Arrays.copyOf(edgeEnergies, capacity);
+                edgeTrafficFactors = Arrays.copyOf(edgeTrafficFactors, capacity);
+            }
+            edgeSources[edgeCount] = source;
+            edgeTargets[edgeCount] = target;
+            edgeDistances[edgeCount] = (float) distanceKm;
+            edgeTimes[edgeCount] = (float) timeMinutes;
+            edgeEnergies[edgeCount] = (float) energy;
+            edgeTrafficFactors[edgeCount] = (float) trafficFactor;
+            edgeCount++;
+        }
+
+        public int nodeCount() {
+            return nodeCount;
+        }
+
+        public double latitude(int node) {
+            return latitudes[node];
+        }
+
+        public double longitude(int node) {
+            return longitudes[node];
+        }
+
+        public RoadGraph build() {
+            return new RoadGraph(this);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.neurofleetx.routing;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Loads the road network once at startup. Networks are read from a pair of CSV
+ * extracts (nodes and edges, e.g. exported from OpenStreetMap); without them a
+ * deterministic street grid around the configured city centre is generated.
+ *
+ * <pre>
+ * nodes: id,latitude,longitude[,name]
+ * edges: source,target[,distance_km,time_minutes,energy_factor,traffic_factor,oneway]
+ * </pre>
+ */
+@Component
+@Slf4j
+public class RoadGraphLoader {
+
+    private static final double DEFAULT_SPEED_KM_PER_MINUTE = 0.5;
+
+    @Value("${routing.graph.nodes-file:}")
+    private String nodesFile;
+
+    @Value("${routing.graph.edges-file:}")
+    private String edgesFile;
+
+    @Value("${routing.graph.synthetic.center-latitude:40.7350}")
+    private double centerLatitude;
+
+    @Value("${routing.graph.synthetic.center-longitude:-73.9900}")
+    private double centerLongitude;
+
+    @Value("${routing.graph.synthetic.size:80}")
+    private int gridSize;
+
+    @Value("${routing.graph.synthetic.spacing-degrees:0.004}")
+    private double gridSpacing;
+
+    private volatile RoadGraph graph;
+
+    @PostConstruct
+    public void load() {
+        long started = System.currentTimeMillis();
+        if (!nodesFile.isBlank() && !edgesFile.isBlank()) {
+            try {
+                graph = readCsv(Path.of(nodesFile), Path.of(edgesFile));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load road graph: " + e.getMessage(), e);
+            }
+        } else {
+            graph = generateGrid();
+        }
+        log.info("Road graph loaded with {} nodes and {} edges in {} ms",
+            graph.nodeCount(), graph.edgeCount(), System.currentTimeMillis() - started);
+    }
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    private RoadGraph readCsv(Path nodesPath, Path edgesPath) throws IOException {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        Map<String, Integer> nodeIds = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(nodesPath, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                String[] columns = line.split(",", -1);
+                String id = columns[0].trim();
+                String name = columns.length > 3 && !columns[3].isBlank() ? columns[3].trim() : "Node-" + id;
+                nodeIds.put(id, builder.addNode(name,
+                    Double.parseDouble(columns[1].trim()), Double.parseDouble(columns[2].trim())));
+            }
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(edgesPath, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                String[] columns = line.split(",", -1);
+                Integer source = nodeIds.get(columns[0].trim());
+                Integer target = nodeIds.get(columns[1].trim());
+                if (source == null || target == null) {
+                    throw new RuntimeException("Edge references unknown node: " + line);
+                }
+
+                double distance = column(columns, 2, RoadGraph.haversineKm(
+                    builder.latitude(source), builder.longitude(source),
+                    builder.latitude(target), builder.longitude(target)));
+                double time = column(columns, 3, distance / DEFAULT_SPEED_KM_PER_MINUTE);
+                double energyFactor = column(columns, 4, 1.0);
+                double trafficFactor = column(columns, 5, 0.1);
+                boolean oneway = columns.length > 6 && Boolean.parseBoolean(columns[6].trim());
+
+                builder.addEdge(source, target, distance, time, distance * energyFactor, trafficFactor);
+                if (!oneway) {
+                    builder.addEdge(target, source, distance, time, distance * energyFactor, trafficFactor);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private RoadGraph generateGrid() {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        Random random = new Random(42);
+        double originLatitude = centerLatitude - gridSpacing * (gridSize - 1) / 2;
+        double originLongitude = centerLongitude - gridSpacing * (gridSize - 1) / 2;
+
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                builder.addNode("Junction-" + row + "-" + column,
+                    originLatitude + row * gridSpacing, originLongitude + column * gridSpacing);
+            }
+        }
+
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                int node = row * gridSize + column;
+                if (column + 1 < gridSize) {
+                    addStreet(builder, random, node, node + 1, originLatitude + row * gridSpacing);
+                }
+                if (row + 1 < gridSize) {
+                    addStreet(builder, random, node, node + gridSize, originLatitude + row * gridSpacing);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private void addStreet(RoadGraph.Builder builder, Random random, int from, int to, double latitude) {
+        boolean horizontal = to == from + 1;
+        double distance = horizontal
+            ? RoadGraph.haversineKm(latitude, 0, latitude, gridSpacing)
+            : RoadGraph.haversineKm(latitude, 0, latitude + gridSpacing, 0);
+
+        for (int direction = 0; direction < 2; direction++) {
+            double time = distance / (0.4 + random.nextDouble() * 0.3);
+            double trafficFactor = random.nextDouble() * 0.3;
+            double energyFactor = 0.8 + random.nextDouble() * 0.4;
+            if (direction == 0) {
+                builder.addEdge(from, to, distance, time, distance * energyFactor, trafficFactor);
+            } else {
+                builder.addEdge(to, from, distance, time, distance * energyFactor, trafficFactor);
+            }
+        }
+    }
+
+    private static double column(String[] columns, int index, double defaultValue) {
+        return columns.length > index && !columns[index].isBlank()
+            ? Double.parseDouble(columns[index].trim())
+            : defaultValue;
+    }
+}
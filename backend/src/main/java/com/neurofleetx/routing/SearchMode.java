@@ -0,0 +1,7 @@
+package com.neurofleetx.routing;
+
+public enum SearchMode {
+    DIJKSTRA,
+    ASTAR,
+    CH
+}
@@ -0,0 +1,89 @@
+package com.neurofleetx.routing;
+
+/**
+ * Time-of-day travel time profiles for the edges of a {@link RoadGraph}. The day
+ * is split into 96 slots of 15 minutes, and a profile holds one byte per slot
+ * encoding a travel time multiplier of {@code 1 + value / 64} over the edge's
+ * free-flow time. Edges are grouped by their quantized static traffic factor and
+ * each group shares one profile, so storage is one byte per edge plus a fixed
+ * table of at most 256 profiles (24 KB).
+ */
+public final class TrafficProfiles {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private static final double QUANTUM = 64.0;
+    private static final int CLASSES = 256;
+
+    private final RoadGraph graph;
+    private final byte[] edgeClasses;
+    private final byte[] profiles;
+    private final double[] slotRatios;
+
+    private TrafficProfiles(RoadGraph graph, byte[] edgeClasses, byte[] profiles, double[] slotRatios) {
+        this.graph = graph;
+        this.edgeClasses = edgeClasses;
+        this.profiles = profiles;
+        this.slotRatios = slotRatios;
+    }
+
+    /**
+     * Builds profiles from per-slot travel time ratios, where 1.0 is the typical
+     * level of congestion captured by the edges' static traffic factors. An edge
+     * with traffic factor {@code f} gets the multiplier {@code ratio * (1 + f)},
+     * but never less than its free-flow time.
+     */
+    public static TrafficProfiles build(RoadGraph graph, double[] slotRatios) {
+        if (slotRatios.length != SLOTS_PER_DAY) {
+            throw new RuntimeException("Expected " + SLOTS_PER_DAY + " slot ratios");
+        }
+        byte[] edgeClasses = new byte[graph.edgeCount()];
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            edgeClasses[edge] = (byte) quantize(graph.trafficFactor(edge));
+        }
+
+        byte[] profiles = new byte[CLASSES * SLOTS_PER_DAY];
+        for (int trafficClass = 0; trafficClass < CLASSES; trafficClass++) {
+            double staticMultiplier = 1.0 + trafficClass / QUANTUM;
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                profiles[trafficClass * SLOTS_PER_DAY + slot] =
+                    (byte) quantize(slotRatios[slot] * staticMultiplier - 1.0);
+            }
+        }
+        return new TrafficProfiles(graph, edgeClasses, profiles, slotRatios.clone());
+    }
+
+    public RoadGraph graph() {
+        return graph;
+    }
+
+    public static int slot(double minuteOfDay) {
+        double minute = minuteOfDay % (24 * 60);
+        if (minute < 0) minute += 24 * 60;
+        return Math.min(SLOTS_PER_DAY - 1, (int) (minute / SLOT_MINUTES));
+    }
+
+    /**
+     * Travel time ratio of the slot relative to typical traffic.
+     */
+    public double slotRatio(double minuteOfDay) {
+        return slotRatios[slot(minuteOfDay)];
+    }
+
+    public double multiplier(int edge, double minuteOfDay) {
+        int trafficClass = edgeClasses[edge] & 0xff;
+        return 1.0 + (profiles[trafficClass * SLOTS_PER_DAY + slot(minuteOfDay)] & 0xff) / QUANTUM;
+    }
+
+    /**
+     * Travel time in minutes of an edge entered at the given minute of the day.
+     */
+    public double travelTime(int edge, double minuteOfDay) {
+        return graph.time(edge) * multiplier(edge, minuteOfDay);
+    }
+
+    private static int quantize(double delay) {
+        return (int) Math.max(0, Math.min(CLASSES - 1, Math.round(delay * QUANTUM)));
+    }
+}
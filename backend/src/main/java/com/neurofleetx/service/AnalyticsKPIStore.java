@@ -0,0 +1,254 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.AnalyticsKPIResponse;
+import com.neurofleetx.event.BookingChangedEvent;
+import com.neurofleetx.event.MaintenanceChangedEvent;
+import com.neurofleetx.event.VehicleChangedEvent;
+import com.neurofleetx.model.*;
+import com.neurofleetx.repository.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * In-memory KPI counters kept current from the vehicle, booking and maintenance
+ * change events, so the dashboard never scans whole tables on read. Trips and
+ * customer accounts have no application write path, so those figures (and any
+ * drift in the others) are corrected by the periodic reconciliation job. The
+ * job reads the database without holding the store lock; events delivered in
+ * the meantime are journaled and applied again on top of what it read.
+ */
+@Component
+@Slf4j
+public class AnalyticsKPIStore {
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Event-driven figures; the same shape holds the deltas journaled during a reconciliation
+    private static final class Counters {
+        final int[] vehicleStatusCounts = new int[Vehicle.VehicleStatus.values().length];
+        int totalFleet;
+        double totalRevenue;
+        double revenueToday;
+        int pendingMaintenance;
+        final Map<Long, Integer> inProgressBookingsByCustomer = new HashMap<>();
+
+        void addInProgress(Long customerId, int change) {
+            inProgressBookingsByCustomer.merge(customerId, change, (count, added) -> count + added != 0 ? count + added : null);
+        }
+    }
+
+    private Counters counters = new Counters();
+    private Counters pendingDeltas;
+    private int tripsToday;
+    private int activeRoutes;
+    private LocalDate revenueDay = LocalDate.now();
+    private int totalCustomers;
+    private boolean initialized;
+    private final Object reconcileLock = new Object();
+
+    public AnalyticsKPIResponse snapshot() {
+        if (!isInitialized()) {
+            reconcile();
+        }
+        synchronized (this) {
+            rollOverDay();
+
+            int inUseVehicles = counters.vehicleStatusCounts[Vehicle.VehicleStatus.IN_USE.ordinal()];
+            double averageUtilization = counters.totalFleet > 0
+                ? (double) inUseVehicles / counters.totalFleet * 100
+                : 0.0;
+
+            return new AnalyticsKPIResponse(
+                counters.totalFleet,
+                counters.vehicleStatusCounts[Vehicle.VehicleStatus.AVAILABLE.ordinal()],
+                inUseVehicles,
+                counters.vehicleStatusCounts[Vehicle.VehicleStatus.MAINTENANCE.ordinal()],
+                tripsToday,
+                activeRoutes,
+                Math.round(counters.totalRevenue * 100.0) / 100.0,
+                Math.round(counters.revenueToday * 100.0) / 100.0,
+                Math.round(averageUtilization * 10.0) / 10.0,
+                counters.pendingMaintenance,
+                totalCustomers,
+                (int) counters.inProgressBookingsByCustomer.values().stream().filter(count -> count > 0).count()
+            );
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehicleChanged(VehicleChangedEvent event) {
+        Vehicle.VehicleStatus previous = event.getPreviousStatus();
+        Vehicle.VehicleStatus current = event.getVehicle().getStatus();
+
+        record(c -> {
+            switch (event.getChangeType()) {
+                case CREATED -> {
+                    c.totalFleet++;
+                    c.vehicleStatusCounts[current.ordinal()]++;
+                }
+                case DELETED -> {
+                    c.totalFleet--;
+                    c.vehicleStatusCounts[previous.ordinal()]--;
+                }
+                default -> {
+                    if (previous != null && previous != current) {
+                        c.vehicleStatusCounts[previous.ordinal()]--;
+                        c.vehicleStatusCounts[current.ordinal()]++;
+                    }
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookingChanged(BookingChangedEvent event) {
+        rollOverDay();
+
+        Booking booking = event.getBooking();
+        Booking.BookingStatus previous = event.getPreviousStatus();
+        Booking.BookingStatus current = booking.getStatus();
+        double previousPrice = event.getPreviousTotalPrice() != null ? event.getPreviousTotalPrice() : 0.0;
+        double currentPrice = booking.getTotalPrice() != null ? booking.getTotalPrice() : 0.0;
+
+        double revenueChange = (current == Booking.BookingStatus.COMPLETED ? currentPrice : 0.0)
+            - (previous == Booking.BookingStatus.COMPLETED ? previousPrice : 0.0);
+        double revenueTodayChange = booking.getCreatedAt() != null && booking.getCreatedAt().toLocalDate().equals(revenueDay)
+            ? (event.isCreated() ? currentPrice : currentPrice - previousPrice)
+            : 0.0;
+        Long customerId = booking.getCustomer() != null ? booking.getCustomer().getId() : null;
+
+        record(c -> {
+            c.totalRevenue += revenueChange;
+            c.revenueToday += revenueTodayChange;
+            if (customerId != null && previous != current) {
+                if (previous == Booking.BookingStatus.IN_PROGRESS) {
+                    c.addInProgress(customerId, -1);
+                }
+                if (current == Booking.BookingStatus.IN_PROGRESS) {
+                    c.addInProgress(customerId, 1);
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        int change = (event.getMaintenance().getStatus() == Maintenance.MaintenanceStatus.PENDING ? 1 : 0)
+            - (event.getPreviousStatus() == Maintenance.MaintenanceStatus.PENDING ? 1 : 0);
+        record(c -> c.pendingMaintenance += change);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${analytics.kpi.reconcile-interval-ms:60000}",
+        initialDelayString = "${analytics.kpi.reconcile-interval-ms:60000}"
+    )
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    private synchronized boolean isInitialized() {
+        return initialized;
+    }
+
+    private void record(Consumer<Counters> change) {
+        change.accept(counters);
+        if (pendingDeltas != null) {
+            change.accept(pendingDeltas);
+        }
+    }
+
+    private void reconcile() {
+        synchronized (reconcileLock) {
+            long started = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+            LocalDateTime todayStart = today.atStartOfDay();
+            LocalDateTime tomorrowStart = today.plusDays(1).atStartOfDay();
+
+            // Journal from before the first query, so a change is never lost; one that
+            // commits while the queries run may count twice until the next reconciliation
+            Counters deltas = new Counters();
+            synchronized (this) {
+                rollOverDay();
+                pendingDeltas = deltas;
+            }
+            try {
+                Counters snapshot = new Counters();
+                for (Object[] row : vehicleRepository.countGroupedByStatus()) {
+                    int count = ((Number) row[1]).intValue();
+                    snapshot.vehicleStatusCounts[((Vehicle.VehicleStatus) row[0]).ordinal()] = count;
+                    snapshot.totalFleet += count;
+                }
+                for (Object[] row : bookingRepository.countByCustomerWithStatus(Booking.BookingStatus.IN_PROGRESS)) {
+                    snapshot.inProgressBookingsByCustomer.put((Long) row[0], ((Number) row[1]).intValue());
+                }
+                snapshot.totalRevenue = bookingRepository.sumTotalPriceByStatus(Booking.BookingStatus.COMPLETED);
+                snapshot.revenueToday = bookingRepository.sumTotalPriceCreatedBetween(todayStart, tomorrowStart);
+                snapshot.pendingMaintenance = (int) maintenanceRepository.countByStatus(Maintenance.MaintenanceStatus.PENDING);
+                int trips = (int) tripRepository.countByStartTimeBetween(todayStart, tomorrowStart);
+                int routes = (int) tripRepository.countByStatus(Trip.TripStatus.IN_PROGRESS);
+                int customers = (int) userRepository.countByRole(User.UserRole.CUSTOMER);
+
+                synchronized (this) {
+                    for (int i = 0; i < snapshot.vehicleStatusCounts.length; i++) {
+                        snapshot.vehicleStatusCounts[i] += deltas.vehicleStatusCounts[i];
+                    }
+                    snapshot.totalFleet += deltas.totalFleet;
+                    snapshot.totalRevenue += deltas.totalRevenue;
+                    snapshot.pendingMaintenance += deltas.pendingMaintenance;
+                    deltas.inProgressBookingsByCustomer.forEach(snapshot::addInProgress);
+                    snapshot.inProgressBookingsByCustomer.values().removeIf(count -> count <= 0);
+                    if (revenueDay.isAfter(today)) {
+                        // The day rolled over while the queries ran; keep the new day's figures
+                        snapshot.revenueToday = counters.revenueToday;
+                    } else {
+                        snapshot.revenueToday += deltas.revenueToday;
+                        revenueDay = today;
+                        tripsToday = trips;
+                    }
+                    counters = snapshot;
+                    activeRoutes = routes;
+                    totalCustomers = customers;
+                    initialized = true;
+                }
+            } finally {
+                synchronized (this) {
+                    pendingDeltas = null;
+                }
+            }
+
+            log.debug("Reconciled KPI store in {} ms", System.currentTimeMillis() - started);
+        }
+    }
+
+    private void rollOverDay() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(revenueDay)) {
+            revenueDay = today;
+            counters.revenueToday = 0.0;
+            // Trips have no change events, so the new day is counted rather than zeroed
+            tripsToday = (int) tripRepository.countByStartTimeBetween(today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+        }
+    }
+}
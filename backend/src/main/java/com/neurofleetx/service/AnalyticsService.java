@@ -4,17 +4,19 @@ import com.neurofleetx.dto.*;
 import com.neurofleetx.model.*;
 import com.neurofleetx.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService {
     
+    // Largest vehicle performance leaderboard served; larger limits are capped
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+    
     @Autowired
     private VehicleRepository vehicleRepository;
     
@@ -25,88 +27,35 @@ public class AnalyticsService {
     private TripRepository tripRepository;
     
     @Autowired
-    private MaintenanceRepository maintenanceRepository;
-    
+    private AnalyticsKPIStore kpiStore;
+
+    @Autowired
+    private HourlyActivityAggregator hourlyActivityAggregator;
+
+    @Autowired
+    private DailyBookingRollupService dailyRollupService;
+
     @Autowired
-    private UserRepository userRepository;
+    private VehiclePerformanceLeaderboard leaderboard;
+
+    @Autowired
+    private FleetHeatmapGrid heatmapGrid;
+
+    @Autowired
+    private AnalyticsSnapshotCache snapshotCache;
+
+    @Value("${analytics.hourly-activity.source:database}")
+    private String hourlyActivitySource;
 
     public AnalyticsKPIResponse getKPIMetrics() {
-        List<Vehicle> allVehicles = vehicleRepository.findAll();
-        List<Booking> allBookings = bookingRepository.findAll();
-        List<Trip> allTrips = tripRepository.findAll();
-        List<Maintenance> allMaintenance = maintenanceRepository.findAll();
-        List<User> allUsers = userRepository.findAll();
-
-        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-        LocalDateTime todayEnd = LocalDate.now().atTime(LocalTime.MAX);
-
-        int totalFleet = allVehicles.size();
-        int availableVehicles = (int) allVehicles.stream()
-                .filter(v -> v.getStatus() == Vehicle.VehicleStatus.AVAILABLE)
-                .count();
-        int inUseVehicles = (int) allVehicles.stream()
-                .filter(v -> v.getStatus() == Vehicle.VehicleStatus.IN_USE)
-                .count();
-        int maintenanceVehicles = (int) allVehicles.stream()
-                .filter(v -> v.getStatus() == Vehicle.VehicleStatus.MAINTENANCE)
-                .count();
-
-        int tripsToday = (int) allTrips.stream()
-                .filter(t -> t.getStartTime() != null && 
-                           t.getStartTime().isAfter(todayStart) && 
-                           t.getStartTime().isBefore(todayEnd))
-                .count();
-
-        int activeRoutes = (int) allTrips.stream()
-                .filter(t -> t.getStatus() == Trip.TripStatus.IN_PROGRESS)
-                .count();
-
-        double totalRevenue = allBookings.stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.COMPLETED)
-                .mapToDouble(b -> b.getTotalPrice() != null ? b.getTotalPrice() : 0.0)
-                .sum();
-
-        double revenueToday = allBookings.stream()
-                .filter(b -> b.getCreatedAt().isAfter(todayStart) && 
-                           b.getCreatedAt().isBefore(todayEnd))
-                .mapToDouble(b -> b.getTotalPrice() != null ? b.getTotalPrice() : 0.0)
-                .sum();
-
-        double averageUtilization = totalFleet > 0 
-            ? (double) inUseVehicles / totalFleet * 100 
-            : 0.0;
-
-        int pendingMaintenance = (int) allMaintenance.stream()
-                .filter(m -> m.getStatus() == Maintenance.MaintenanceStatus.PENDING)
-                .count();
-
-        int totalCustomers = (int) allUsers.stream()
-                .filter(u -> u.getRole() == User.UserRole.CUSTOMER)
-                .count();
-
-        int activeCustomers = (int) allBookings.stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.IN_PROGRESS)
-                .map(Booking::getCustomer)
-                .distinct()
-                .count();
-
-        return new AnalyticsKPIResponse(
-            totalFleet,
-            availableVehicles,
-            inUseVehicles,
-            maintenanceVehicles,
-            tripsToday,
-            activeRoutes,
-            Math.round(totalRevenue * 100.0) / 100.0,
-            Math.round(revenueToday * 100.0) / 100.0,
-            Math.round(averageUtilization * 10.0) / 10.0,
-            pendingMaintenance,
-            totalCustomers,
-            activeCustomers
-        );
+        return snapshotCache.get(AnalyticsSnapshotCache.KPI, "", kpiStore::snapshot);
     }
 
     public FleetDistributionData getFleetDistribution() {
+        return snapshotCache.get(AnalyticsSnapshotCache.FLEET_DISTRIBUTION, "", this::computeFleetDistribution);
+    }
+
+    private FleetDistributionData computeFleetDistribution() {
         List<Vehicle> allVehicles = vehicleRepository.findAll();
         List<Trip> allTrips = tripRepository.findAll();
 
@@ -115,7 +64,7 @@ public class AnalyticsService {
                 .map(v -> new HeatmapDataPoint(
                     v.getLatitude(),
                     v.getLongitude(),
-                    calculateVehicleIntensity(v),
+                    FleetHeatmapGrid.vehicleIntensity(v),
                     "vehicle",
                     v.getVehicleNumber(),
                     getLocationName(v.getLatitude(), v.getLongitude())
@@ -144,51 +93,21 @@ public class AnalyticsService {
         );
     }
 
-    public HourlyActivityData getHourlyActivity() {
-        List<Booking> allBookings = bookingRepository.findAll();
-
-        List<Integer> hours = new ArrayList<>();
-        List<Integer> bookingCounts = new ArrayList<>();
-        List<Double> revenues = new ArrayList<>();
-        List<Integer> vehicleUsage = new ArrayList<>();
-
-        for (int hour = 0; hour < 24; hour++) {
-            hours.add(hour);
-            
-            final int currentHour = hour;
-            int bookingsInHour = (int) allBookings.stream()
-                    .filter(b -> b.getStartTime() != null && 
-                               b.getStartTime().getHour() == currentHour)
-                    .count();
-            bookingCounts.add(bookingsInHour);
-
-            double revenueInHour = allBookings.stream()
-                    .filter(b -> b.getStartTime() != null && 
-                               b.getStartTime().getHour() == currentHour)
-                    .mapToDouble(b -> b.getTotalPrice() != null ? b.getTotalPrice() : 0.0)
-                    .sum();
-            revenues.add(Math.round(revenueInHour * 100.0) / 100.0);
-
-            Set<Long> uniqueVehicles = allBookings.stream()
-                    .filter(b -> b.getStartTime() != null && 
-                               b.getStartTime().getHour() == currentHour)
-                    .map(b -> b.getVehicle().getId())
-                    .collect(Collectors.toSet());
-            vehicleUsage.add(uniqueVehicles.size());
-        }
+    public FleetHeatmapTiles getFleetDistributionTiles(int zoom, Double minLat, Double maxLat, Double minLon, Double maxLon) {
+        String params = zoom + ":" + minLat + ":" + maxLat + ":" + minLon + ":" + maxLon;
+        return snapshotCache.get(AnalyticsSnapshotCache.FLEET_DISTRIBUTION_TILES, params,
+            () -> heatmapGrid.getTiles(zoom, minLat, maxLat, minLon, maxLon));
+    }
 
-        return new HourlyActivityData(hours, bookingCounts, revenues, vehicleUsage);
+    public HourlyActivityData getHourlyActivity() {
+        return snapshotCache.get(AnalyticsSnapshotCache.HOURLY_ACTIVITY, "", this::computeHourlyActivity);
     }
 
-    private int calculateVehicleIntensity(Vehicle vehicle) {
-        if (vehicle.getStatus() == Vehicle.VehicleStatus.IN_USE) {
-            return 100;
-        } else if (vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE) {
-            return 60;
-        } else if (vehicle.getStatus() == Vehicle.VehicleStatus.MAINTENANCE) {
-            return 30;
+    private HourlyActivityData computeHourlyActivity() {
+        if ("memory".equalsIgnoreCase(hourlyActivitySource)) {
+            return hourlyActivityAggregator.aggregate(bookingRepository.findAll());
         }
-        return 10;
+        return hourlyActivityAggregator.aggregateInDatabase();
     }
 
     private List<HeatmapDataPoint> calculateTripDensity(List<Trip> trips) {
@@ -246,35 +165,24 @@ public class AnalyticsService {
     }
 
     public Map<String, Object> getDailyTrends(int days) {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-        List<Booking> bookings = bookingRepository.findAll().stream()
-                .filter(b -> b.getCreatedAt().isAfter(startDate))
-                .collect(Collectors.toList());
+        // Trends reach back no further than the days kept as rollups
+        int window = Math.max(0, Math.min(days, dailyRollupService.getBackfillDays()));
+        return snapshotCache.get(AnalyticsSnapshotCache.DAILY_TRENDS, String.valueOf(window), () -> computeDailyTrends(window));
+    }
+
+    private Map<String, Object> computeDailyTrends(int days) {
+        LocalDate today = LocalDate.now();
+        List<DailyBookingRollup> rollups = dailyRollupService.getRollups(today.minusDays(days - 1L), today);
 
         Map<String, Object> trends = new HashMap<>();
         List<String> dates = new ArrayList<>();
         List<Integer> dailyBookings = new ArrayList<>();
         List<Double> dailyRevenue = new ArrayList<>();
 
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            dates.add(date.toString());
-
-            LocalDateTime dayStart = date.atStartOfDay();
-            LocalDateTime dayEnd = date.atTime(LocalTime.MAX);
-
-            long bookingCount = bookings.stream()
-                    .filter(b -> b.getCreatedAt().isAfter(dayStart) && 
-                               b.getCreatedAt().isBefore(dayEnd))
-                    .count();
-            dailyBookings.add((int) bookingCount);
-
-            double revenue = bookings.stream()
-                    .filter(b -> b.getCreatedAt().isAfter(dayStart) && 
-                               b.getCreatedAt().isBefore(dayEnd))
-                    .mapToDouble(b -> b.getTotalPrice() != null ? b.getTotalPrice() : 0.0)
-                    .sum();
-            dailyRevenue.add(Math.round(revenue * 100.0) / 100.0);
+        for (DailyBookingRollup rollup : rollups) {
+            dates.add(rollup.getRollupDate().toString());
+            dailyBookings.add(rollup.getBookingCount());
+            dailyRevenue.add(Math.round(rollup.getRevenue() * 100.0) / 100.0);
         }
 
         trends.put("dates", dates);
@@ -284,53 +192,13 @@ public class AnalyticsService {
         return trends;
     }
 
-    public Map<String, Object> getVehiclePerformance() {
-        List<Vehicle> vehicles = vehicleRepository.findAll();
-        List<Booking> bookings = bookingRepository.findAll();
-
-        List<Map<String, Object>> performanceData = vehicles.stream()
-                .map(vehicle -> {
-                    Map<String, Object> data = new HashMap<>();
-                    data.put("vehicleId", vehicle.getVehicleNumber());
-                    data.put("model", vehicle.getManufacturer() + " " + vehicle.getModel());
-                    data.put("type", vehicle.getType().name());
-                    data.put("status", vehicle.getStatus().name());
-
-                    List<Booking> vehicleBookings = bookings.stream()
-                            .filter(b -> b.getVehicle().getId().equals(vehicle.getId()))
-                            .collect(Collectors.toList());
-
-                    data.put("totalTrips", vehicleBookings.size());
-                    
-                    double totalRevenue = vehicleBookings.stream()
-                            .mapToDouble(b -> b.getTotalPrice() != null ? b.getTotalPrice() : 0.0)
-                            .sum();
-                    data.put("totalRevenue", Math.round(totalRevenue * 100.0) / 100.0);
-
-                    data.put("healthScore", vehicle.getHealthScore() != null ? vehicle.getHealthScore() : 100);
-                    data.put("utilization", calculateUtilizationRate(vehicleBookings));
-
-                    return data;
-                })
-                .sorted((a, b) -> Double.compare(
-                    (Double) b.get("totalRevenue"), 
-                    (Double) a.get("totalRevenue")
-                ))
-                .limit(10)
-                .collect(Collectors.toList());
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("topPerformers", performanceData);
-        return result;
+    public VehiclePerformanceData getVehiclePerformance(int limit, VehiclePerformanceLeaderboard.RankingMetric metric) {
+        int size = Math.max(0, Math.min(limit, MAX_LEADERBOARD_SIZE));
+        return snapshotCache.get(AnalyticsSnapshotCache.VEHICLE_PERFORMANCE, size + ":" + metric,
+            () -> new VehiclePerformanceData(leaderboard.topVehicles(size, metric), metric.name()));
     }
 
-    private double calculateUtilizationRate(List<Booking> bookings) {
-        long completedBookings = bookings.stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.COMPLETED)
-                .count();
-        
-        if (bookings.isEmpty()) return 0.0;
-        
-        return Math.round((double) completedBookings / bookings.size() * 1000.0) / 10.0;
+    public List<AnalyticsCacheStats> getCacheStats() {
+        return snapshotCache.getStats();
     }
 }
@@ -0,0 +1,193 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.AnalyticsCacheStats;
+import com.neurofleetx.event.BookingChangedEvent;
+import com.neurofleetx.event.MaintenanceChangedEvent;
+import com.neurofleetx.event.VehicleChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caches analytics responses per endpoint and parameter set. Each endpoint has
+ * its own TTL, concurrent misses for the same key share a single computation,
+ * and entries are dropped when a vehicle, booking or maintenance change affects
+ * the endpoint.
+ */
+@Component
+public class AnalyticsSnapshotCache {
+
+    public static final String KPI = "kpi";
+    public static final String FLEET_DISTRIBUTION = "fleet-distribution";
+    public static final String FLEET_DISTRIBUTION_TILES = "fleet-distribution-tiles";
+    public static final String HOURLY_ACTIVITY = "hourly-activity";
+    public static final String DAILY_TRENDS = "daily-trends";
+    public static final String VEHICLE_PERFORMANCE = "vehicle-performance";
+
+    private static final String[] ENDPOINTS = {
+        KPI, FLEET_DISTRIBUTION, FLEET_DISTRIBUTION_TILES, HOURLY_ACTIVITY, DAILY_TRENDS, VEHICLE_PERFORMANCE
+    };
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${analytics.cache.default-ttl-ms:5000}")
+    private long defaultTtlMillis;
+
+    private static final class Entry {
+        final Object value;
+        final long generation;
+        final long expiresAt;
+
+        Entry(Object value, long generation, long expiresAt) {
+            this.value = value;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Stats {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder coalescedMisses = new LongAdder();
+        final LongAdder invalidations = new LongAdder();
+        final LongAdder recomputations = new LongAdder();
+        final LongAdder recomputeNanos = new LongAdder();
+        final AtomicLong maxRecomputeNanos = new AtomicLong();
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final Map<String, Long> ttls = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String endpoint, String params, Supplier<T> loader) {
+        String key = endpoint + "|" + params;
+        Stats endpointStats = stats(endpoint);
+        long generation = generation(endpoint).get();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.generation == generation && System.currentTimeMillis() < entry.expiresAt) {
+            endpointStats.hits.increment();
+            return (T) entry.value;
+        }
+
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            endpointStats.coalescedMisses.increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause()
+                    : new RuntimeException(e.getCause());
+            }
+        }
+
+        endpointStats.misses.increment();
+        long started = System.nanoTime();
+        try {
+            T value = loader.get();
+            long elapsed = System.nanoTime() - started;
+            endpointStats.recomputations.increment();
+            endpointStats.recomputeNanos.add(elapsed);
+            endpointStats.maxRecomputeNanos.accumulateAndGet(elapsed, Math::max);
+
+            // A change that landed while computing bumps the generation and leaves this entry stale
+            entries.put(key, new Entry(value, generation, System.currentTimeMillis() + ttl(endpoint)));
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    public void invalidate(String... endpoints) {
+        for (String endpoint : endpoints) {
+            generation(endpoint).incrementAndGet();
+            stats(endpoint).invalidations.increment();
+            String prefix = endpoint + "|";
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    public List<AnalyticsCacheStats> getStats() {
+        List<AnalyticsCacheStats> result = new ArrayList<>();
+        for (String endpoint : ENDPOINTS) {
+            Stats endpointStats = stats(endpoint);
+            long recomputations = endpointStats.recomputations.sum();
+            double averageMillis = recomputations > 0
+                ? endpointStats.recomputeNanos.sum() / (double) recomputations / 1_000_000.0
+                : 0.0;
+            result.add(new AnalyticsCacheStats(
+                endpoint,
+                ttl(endpoint),
+                endpointStats.hits.sum(),
+                endpointStats.misses.sum(),
+                endpointStats.coalescedMisses.sum(),
+                endpointStats.invalidations.sum(),
+                recomputations,
+                Math.round(averageMillis * 100.0) / 100.0,
+                Math.round(endpointStats.maxRecomputeNanos.get() / 10_000.0) / 100.0
+            ));
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        if (event.getChangeType() == VehicleChangedEvent.ChangeType.TELEMETRY) {
+            invalidate(FLEET_DISTRIBUTION, FLEET_DISTRIBUTION_TILES);
+        } else {
+            invalidate(KPI, FLEET_DISTRIBUTION, FLEET_DISTRIBUTION_TILES, VEHICLE_PERFORMANCE);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        invalidate(KPI, HOURLY_ACTIVITY, DAILY_TRENDS, VEHICLE_PERFORMANCE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        invalidate(KPI);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.cache.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private long ttl(String endpoint) {
+        return ttls.computeIfAbsent(endpoint, name ->
+            environment.getProperty("analytics.cache.ttl-ms." + name, Long.class, defaultTtlMillis));
+    }
+
+    private AtomicLong generation(String endpoint) {
+        return generations.computeIfAbsent(endpoint, name -> new AtomicLong());
+    }
+
+    private Stats stats(String endpoint) {
+        return stats.computeIfAbsent(endpoint, name -> new Stats());
+    }
+}
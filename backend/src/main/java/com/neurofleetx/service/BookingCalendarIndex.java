@@ -0,0 +1,221 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.event.BookingChangedEvent;
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * In-memory calendar of the bookings that still hold a vehicle (neither
+ * cancelled nor completed), kept current from booking events. Each vehicle's
+ * bookings are kept as arrays sorted by start with a running maximum of the
+ * ends, so an overlap check is one binary search plus a walk over the bookings
+ * that can still reach the queried period. Periods overlap when they share any
+ * instant, end points included, as in the booking checks this replaces.
+ * Hourly occupancy is returned as a bitmap with one bit per hour, filled a word
+ * at a time from the same walk.
+ */
+@Component
+public class BookingCalendarIndex {
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private static final class Interval {
+        final long bookingId;
+        final long vehicleId;
+        final long start;
+        final long end;
+
+        Interval(long bookingId, long vehicleId, long start, long end) {
+            this.bookingId = bookingId;
+            this.vehicleId = vehicleId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class VehicleCalendar {
+        final long[] bookingIds;
+        final long[] starts;
+        final long[] ends;
+        // Latest end among the bookings up to and including each index
+        final long[] maxEnds;
+
+        VehicleCalendar(List<Interval> intervals) {
+            Interval[] sorted = intervals.toArray(new Interval[0]);
+            Arrays.sort(sorted, Comparator.comparingLong(interval -> interval.start));
+            bookingIds = new long[sorted.length];
+            starts = new long[sorted.length];
+            ends = new long[sorted.length];
+            maxEnds = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                bookingIds[i] = sorted[i].bookingId;
+                starts[i] = sorted[i].start;
+                ends[i] = sorted[i].end;
+                maxEnds[i] = i > 0 ? Math.max(maxEnds[i - 1], ends[i]) : ends[i];
+            }
+        }
+
+        void fillHours(long firstHour, int hours, long[] words) {
+            long lastHour = firstHour + hours - 1;
+            // Hours whose closed slot [h, h + 1] touches the bookings reaching the window
+            for (int i = lastStartAtOrBefore((lastHour + 1) * HOUR_MILLIS);
+                 i >= 0 && maxEnds[i] >= firstHour * HOUR_MILLIS; i--) {
+                long from = Math.max(firstHour, Math.floorDiv(starts[i] + HOUR_MILLIS - 1, HOUR_MILLIS) - 1);
+                long to = Math.min(lastHour, Math.floorDiv(ends[i], HOUR_MILLIS));
+                for (long hour = from - firstHour; hour <= to - firstHour; ) {
+                    int word = (int) (hour >>> 6);
+                    int bit = (int) (hour & 63);
+                    int count = (int) Math.min(64 - bit, to - firstHour - hour + 1);
+                    words[word] |= (count == 64 ? -1L : (1L << count) - 1) << bit;
+                    hour += count;
+                }
+            }
+        }
+
+        boolean overlaps(long start, long end, long ignoredBookingId) {
+            // Only bookings starting no later than the period's end can overlap it
+            for (int i = lastStartAtOrBefore(end); i >= 0 && maxEnds[i] >= start; i--) {
+                if (ends[i] >= start && bookingIds[i] != ignoredBookingId) return true;
+            }
+            return false;
+        }
+
+        private int lastStartAtOrBefore(long time) {
+            int low = 0;
+            int high = starts.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] <= time) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return high;
+        }
+    }
+
+    private final Map<Long, Interval> intervals = new HashMap<>();
+    private final Map<Long, List<Interval>> intervalsByVehicle = new HashMap<>();
+    private final Map<Long, VehicleCalendar> calendars = new HashMap<>();
+    private boolean loaded;
+
+    /**
+     * Whether any active booking of the vehicle overlaps the period.
+     */
+    public boolean isBooked(Long vehicleId, LocalDateTime startTime, LocalDateTime endTime) {
+        return isBooked(vehicleId, startTime, endTime, null);
+    }
+
+    /**
+     * Same as {@link #isBooked(Long, LocalDateTime, LocalDateTime)}, leaving out
+     * the given booking so a booking can be checked against the others.
+     */
+    public synchronized boolean isBooked(Long vehicleId, LocalDateTime startTime, LocalDateTime endTime,
+                                         Long ignoredBookingId) {
+        ensureLoaded();
+        VehicleCalendar calendar = calendars.get(vehicleId);
+        return calendar != null
+            && calendar.overlaps(toKey(startTime), toKey(endTime), ignoredBookingId != null ? ignoredBookingId : -1);
+    }
+
+    /**
+     * Ids of the vehicles with an active booking overlapping the period.
+     */
+    public synchronized Set<Long> bookedVehicleIds(LocalDateTime startTime, LocalDateTime endTime) {
+        ensureLoaded();
+        long start = toKey(startTime);
+        long end = toKey(endTime);
+        Set<Long> booked = new HashSet<>();
+        for (Map.Entry<Long, VehicleCalendar> entry : calendars.entrySet()) {
+            if (entry.getValue().overlaps(start, end, -1)) {
+                booked.add(entry.getKey());
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * Occupancy of the vehicle for {@code hours} hours from the hour containing
+     * {@code from}: bit {@code i % 64} of word {@code i / 64} is set when an
+     * active booking touches hour {@code i}, end points included.
+     */
+    public synchronized long[] occupiedHours(Long vehicleId, LocalDateTime from, int hours) {
+        ensureLoaded();
+        long[] words = new long[(Math.max(hours, 0) + 63) >>> 6];
+        VehicleCalendar calendar = calendars.get(vehicleId);
+        if (calendar != null && hours > 0) {
+            calendar.fillHours(Math.floorDiv(toKey(from), HOUR_MILLIS), hours, words);
+        }
+        return words;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookingChanged(BookingChangedEvent event) {
+        if (!loaded) return;
+
+        Booking booking = event.getBooking();
+        remove(booking.getId());
+        add(booking);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        for (Booking booking : bookingRepository.findByStatusIn(Booking.ACTIVE_STATUSES)) {
+            Interval interval = toInterval(booking);
+            if (interval != null) {
+                intervals.put(interval.bookingId, interval);
+                intervalsByVehicle.computeIfAbsent(interval.vehicleId, id -> new ArrayList<>()).add(interval);
+            }
+        }
+        intervalsByVehicle.forEach((vehicleId, vehicleIntervals) ->
+            calendars.put(vehicleId, new VehicleCalendar(vehicleIntervals)));
+        loaded = true;
+    }
+
+    private void add(Booking booking) {
+        Interval interval = toInterval(booking);
+        if (interval == null) return;
+        intervals.put(interval.bookingId, interval);
+        List<Interval> vehicleIntervals = intervalsByVehicle.computeIfAbsent(interval.vehicleId, id -> new ArrayList<>());
+        vehicleIntervals.add(interval);
+        calendars.put(interval.vehicleId, new VehicleCalendar(vehicleIntervals));
+    }
+
+    private void remove(Long bookingId) {
+        Interval interval = intervals.remove(bookingId);
+        if (interval == null) return;
+        List<Interval> vehicleIntervals = intervalsByVehicle.get(interval.vehicleId);
+        vehicleIntervals.remove(interval);
+        if (vehicleIntervals.isEmpty()) {
+            intervalsByVehicle.remove(interval.vehicleId);
+            calendars.remove(interval.vehicleId);
+        } else {
+            calendars.put(interval.vehicleId, new VehicleCalendar(vehicleIntervals));
+        }
+    }
+
+    private static Interval toInterval(Booking booking) {
+        if (!Booking.ACTIVE_STATUSES.contains(booking.getStatus())
+                || booking.getVehicle() == null || booking.getStartTime() == null || booking.getEndTime() == null) {
+            return null;
+        }
+        return new Interval(booking.getId(), booking.getVehicle().getId(),
+            toKey(booking.getStartTime()), toKey(booking.getEndTime()));
+    }
+
+    // Booking times are zone-less, so any fixed offset keeps their order
+    private static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000L + time.getNano() / 1_000_000;
+    }
+}
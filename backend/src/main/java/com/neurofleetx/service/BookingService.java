@@ -1,20 +1,29 @@
 package com.neurofleetx.service;
 
+import com.neurofleetx.event.BookingChangedEvent;
 import com.neurofleetx.model.Booking;
 import com.neurofleetx.model.User;
 import com.neurofleetx.model.Vehicle;
 import com.neurofleetx.repository.BookingRepository;
 import com.neurofleetx.repository.UserRepository;
 import com.neurofleetx.repository.VehicleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class BookingService {
     @Autowired
     private BookingRepository bookingRepository;
@@ -25,7 +34,17 @@ public class BookingService {
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookingCalendarIndex bookingCalendarIndex;
+
     private static final double HOURLY_RATE = 25.0;
+    private static final int MAX_BOOKING_ATTEMPTS = 5;
 
     public List<Booking> getAllBookings() {
         return bookingRepository.findAll();
@@ -53,18 +72,9 @@ public class BookingService {
     }
 
     public List<Vehicle> getAvailableVehicles(LocalDateTime startTime, LocalDateTime endTime) {
-        List<Booking> overlappingBookings = bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() != Booking.BookingStatus.CANCELLED 
-                        && b.getStatus() != Booking.BookingStatus.COMPLETED)
-                .filter(b -> !(b.getEndTime().isBefore(startTime) || b.getStartTime().isAfter(endTime)))
-                .collect(Collectors.toList());
-
-        List<Long> bookedVehicleIds = overlappingBookings.stream()
-                .map(b -> b.getVehicle().getId())
-                .collect(Collectors.toList());
+        Set<Long> bookedVehicleIds = bookingCalendarIndex.bookedVehicleIds(startTime, endTime);
 
-        return vehicleRepository.findAll().stream()
-                .filter(v -> v.getStatus() == Vehicle.VehicleStatus.AVAILABLE)
+        return vehicleRepository.findByStatus(Vehicle.VehicleStatus.AVAILABLE).stream()
                 .filter(v -> !bookedVehicleIds.contains(v.getId()))
                 .collect(Collectors.toList());
     }
@@ -73,36 +83,61 @@ public class BookingService {
         Vehicle vehicle = vehicleRepository.findById(vehicleId)
                 .orElseThrow(() -> new RuntimeException("Vehicle not found"));
 
-        if (vehicle.getStatus() != Vehicle.VehicleStatus.AVAILABLE) {
-            return false;
-        }
-
-        List<Booking> vehicleBookings = bookingRepository.findByVehicle(vehicle).stream()
-                .filter(b -> b.getStatus() != Booking.BookingStatus.CANCELLED 
-                        && b.getStatus() != Booking.BookingStatus.COMPLETED)
-                .collect(Collectors.toList());
+        return vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE
+                && !bookingCalendarIndex.isBooked(vehicleId, startTime, endTime);
+    }
 
-        return vehicleBookings.stream()
-                .noneMatch(b -> !(b.getEndTime().isBefore(startTime) || b.getStartTime().isAfter(endTime)));
+    private boolean isVehicleAvailable(Vehicle vehicle, LocalDateTime startTime, LocalDateTime endTime, Long ignoredBookingId) {
+        return vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE
+                && !bookingRepository.existsOverlapping(vehicle.getId(), Booking.ACTIVE_STATUSES,
+                        startTime, endTime, ignoredBookingId);
     }
 
+    /**
+     * Creates the booking after checking the vehicle is free for the period. The
+     * check and insert run in one transaction that also bumps the vehicle's
+     * version, so two overlapping bookings for the same vehicle cannot both
+     * commit; the loser re-checks availability and retries.
+     */
     public Booking createBooking(String username, Booking booking) {
         User customer = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Vehicle vehicle = vehicleRepository.findById(booking.getVehicle().getId())
-                .orElseThrow(() -> new RuntimeException("Vehicle not found"));
-
-        if (!isVehicleAvailable(vehicle.getId(), booking.getStartTime(), booking.getEndTime())) {
-            throw new RuntimeException("Vehicle is not available for the selected time period");
+        Long vehicleId = booking.getVehicle().getId();
+        if (!vehicleRepository.existsById(vehicleId)) {
+            throw new RuntimeException("Vehicle not found");
         }
 
-        booking.setCustomer(customer);
-        booking.setVehicle(vehicle);
-        booking.setCreatedAt(LocalDateTime.now());
-        booking.setStatus(Booking.BookingStatus.PENDING);
-        booking.setTotalPrice(calculateTotalPrice(booking.getStartTime(), booking.getEndTime()));
-        return bookingRepository.save(booking);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    booking.setId(null);
+                    booking.setVersion(0);
+                    booking.setCustomer(customer);
+                    booking.setVehicle(vehicleRepository.getReferenceById(vehicleId));
+                    booking.setCreatedAt(LocalDateTime.now());
+                    booking.setStatus(Booking.BookingStatus.PENDING);
+                    booking.setTotalPrice(calculateTotalPrice(booking.getStartTime(), booking.getEndTime()));
+                    // Saved before any read so the id is allocated while this transaction holds no locks
+                    Booking saved = saveAndPublish(booking, null, null);
+
+                    Vehicle vehicle = vehicleRepository.findForVersionIncrementById(vehicleId)
+                            .orElseThrow(() -> new RuntimeException("Vehicle not found"));
+                    // Checked against the database, since the calendar index only sees committed bookings
+                    if (!isVehicleAvailable(vehicle, booking.getStartTime(), booking.getEndTime(), saved.getId())) {
+                        throw new RuntimeException("Vehicle is not available for the selected time period");
+                    }
+                    saved.setVehicle((Vehicle) Hibernate.unproxy(vehicle));
+                    return saved;
+                });
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_BOOKING_ATTEMPTS) {
+                    throw new RuntimeException("Could not book vehicle " + vehicleId
+                            + " after " + attempt + " attempts due to concurrent bookings");
+                }
+                log.warn("Vehicle {} was booked concurrently, checking availability again", vehicleId);
+                ConcurrencyRetry.backoff(attempt);
+            }
+        }
     }
 
     public List<Booking> getPendingBookingsForManager() {
@@ -110,17 +145,15 @@ public class BookingService {
     }
 
     public Booking approveBookingByManager(Long bookingId) {
-        Booking booking = getBookingById(bookingId);
-        if (booking.getStatus() != Booking.BookingStatus.PENDING) {
-            throw new RuntimeException("Booking is not in pending approval status");
-        }
-        booking.setStatus(Booking.BookingStatus.CONFIRMED);
-        booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        return changeBooking(bookingId, booking -> {
+            if (booking.getStatus() != Booking.BookingStatus.PENDING) {
+                throw new RuntimeException("Booking is not in pending approval status");
+            }
+            booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        });
     }
 
     public Booking assignDriverToBooking(Long bookingId, Long driverId) {
-        Booking booking = getBookingById(bookingId);
         User driver = userRepository.findById(driverId)
                 .orElseThrow(() -> new RuntimeException("Driver not found"));
         
@@ -128,14 +161,13 @@ public class BookingService {
             throw new RuntimeException("Selected user is not a driver");
         }
         
-        if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
-            throw new RuntimeException("Booking must be confirmed before assigning driver");
-        }
-        
-        booking.setDriver(driver);
-        booking.setStatus(Booking.BookingStatus.CONFIRMED);
-        booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        return changeBooking(bookingId, booking -> {
+            if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
+                throw new RuntimeException("Booking must be confirmed before assigning driver");
+            }
+            booking.setDriver(driver);
+            booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        });
     }
 
     public List<User> getAvailableDrivers() {
@@ -151,61 +183,65 @@ public class BookingService {
     }
 
     public Booking startTripByDriver(Long bookingId) {
-        Booking booking = getBookingById(bookingId);
-        if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
-            throw new RuntimeException("Booking must be confirmed to start trip");
-        }
-        booking.setStatus(Booking.BookingStatus.IN_PROGRESS);
-        booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        return changeBooking(bookingId, booking -> {
+            if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
+                throw new RuntimeException("Booking must be confirmed to start trip");
+            }
+            booking.setStatus(Booking.BookingStatus.IN_PROGRESS);
+        });
     }
 
+    /**
+     * Updates the booking. A new vehicle or period, or a booking made active
+     * again, is checked against the vehicle's other bookings in the transaction
+     * that bumps the vehicle's version, as in createBooking, so it cannot
+     * overlap a concurrent booking.
+     */
     public Booking updateBooking(Long id, Booking bookingDetails) {
-        Booking booking = getBookingById(id);
-        
-        if (bookingDetails.getVehicle() != null && !booking.getVehicle().getId().equals(bookingDetails.getVehicle().getId())) {
-            if (!isVehicleAvailable(bookingDetails.getVehicle().getId(), bookingDetails.getStartTime(), bookingDetails.getEndTime())) {
-                throw new RuntimeException("Vehicle is not available for the selected time period");
+        return changeBooking(id, booking -> {
+            Long vehicleId = bookingDetails.getVehicle() != null
+                    ? bookingDetails.getVehicle().getId() : booking.getVehicle().getId();
+            boolean vehicleChanged = !booking.getVehicle().getId().equals(vehicleId);
+            boolean periodChanged = !bookingDetails.getStartTime().equals(booking.getStartTime())
+                    || !bookingDetails.getEndTime().equals(booking.getEndTime());
+            boolean wasActive = Booking.ACTIVE_STATUSES.contains(booking.getStatus());
+
+            booking.setStatus(bookingDetails.getStatus());
+            booking.setStartTime(bookingDetails.getStartTime());
+            booking.setEndTime(bookingDetails.getEndTime());
+            booking.setPickupLocation(bookingDetails.getPickupLocation());
+            booking.setDropoffLocation(bookingDetails.getDropoffLocation());
+            booking.setTotalPrice(calculateTotalPrice(bookingDetails.getStartTime(), bookingDetails.getEndTime()));
+
+            if ((vehicleChanged || periodChanged || !wasActive) && Booking.ACTIVE_STATUSES.contains(booking.getStatus())) {
+                Vehicle vehicle = vehicleRepository.findForVersionIncrementById(vehicleId)
+                        .orElseThrow(() -> new RuntimeException("Vehicle not found"));
+                boolean available = vehicleChanged
+                        ? isVehicleAvailable(vehicle, booking.getStartTime(), booking.getEndTime(), id)
+                        : !bookingRepository.existsOverlapping(vehicleId, Booking.ACTIVE_STATUSES,
+                                booking.getStartTime(), booking.getEndTime(), id);
+                if (!available) {
+                    throw new RuntimeException("Vehicle is not available for the selected time period");
+                }
+                booking.setVehicle((Vehicle) Hibernate.unproxy(vehicle));
             }
-            booking.setVehicle(bookingDetails.getVehicle());
-        }
-        
-        booking.setStatus(bookingDetails.getStatus());
-        booking.setStartTime(bookingDetails.getStartTime());
-        booking.setEndTime(bookingDetails.getEndTime());
-        booking.setPickupLocation(bookingDetails.getPickupLocation());
-        booking.setDropoffLocation(bookingDetails.getDropoffLocation());
-        booking.setTotalPrice(calculateTotalPrice(bookingDetails.getStartTime(), bookingDetails.getEndTime()));
-        booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        });
     }
 
     public Booking confirmBooking(Long id) {
-        Booking booking = getBookingById(id);
-        booking.setStatus(Booking.BookingStatus.CONFIRMED);
-        booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        return changeBooking(id, booking -> booking.setStatus(Booking.BookingStatus.CONFIRMED));
     }
 
     public Booking cancelBooking(Long id) {
-        Booking booking = getBookingById(id);
-        booking.setStatus(Booking.BookingStatus.CANCELLED);
-        booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        return changeBooking(id, booking -> booking.setStatus(Booking.BookingStatus.CANCELLED));
     }
 
     public Booking startBooking(Long id) {
-        Booking booking = getBookingById(id);
-        booking.setStatus(Booking.BookingStatus.IN_PROGRESS);
-        booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        return changeBooking(id, booking -> booking.setStatus(Booking.BookingStatus.IN_PROGRESS));
     }
 
     public Booking completeBooking(Long id) {
-        Booking booking = getBookingById(id);
-        booking.setStatus(Booking.BookingStatus.COMPLETED);
-        booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        return changeBooking(id, booking -> booking.setStatus(Booking.BookingStatus.COMPLETED));
     }
 
     public List<Booking> getRecommendedBookings(String username) {
@@ -216,6 +252,40 @@ public class BookingService {
         return bookings;
     }
 
+    /**
+     * Applies the change to a freshly read booking and saves it in one
+     * transaction. If the booking, or a vehicle the change locks, was modified
+     * concurrently, the booking is read again and the change re-applied, so
+     * its checks see the other writer's result.
+     */
+    private Booking changeBooking(Long id, Consumer<Booking> change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Booking booking = getBookingById(id);
+                    Booking.BookingStatus previousStatus = booking.getStatus();
+                    Double previousTotalPrice = booking.getTotalPrice();
+                    change.accept(booking);
+                    booking.setUpdatedAt(LocalDateTime.now());
+                    return saveAndPublish(booking, previousStatus, previousTotalPrice);
+                });
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_BOOKING_ATTEMPTS) {
+                    throw new RuntimeException("Could not update booking " + id
+                            + " after " + attempt + " attempts due to concurrent updates");
+                }
+                log.warn("Booking {} changed concurrently, applying the update again", id);
+                ConcurrencyRetry.backoff(attempt);
+            }
+        }
+    }
+
+    private Booking saveAndPublish(Booking booking, Booking.BookingStatus previousStatus, Double previousTotalPrice) {
+        Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(saved, previousStatus, previousTotalPrice));
+        return saved;
+    }
+
     private double calculateTotalPrice(LocalDateTime startTime, LocalDateTime endTime) {
         Duration duration = Duration.between(startTime, endTime);
         double hours = duration.toHours() + (duration.toMinutesPart() / 60.0);
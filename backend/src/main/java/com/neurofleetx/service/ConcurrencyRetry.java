@@ -0,0 +1,24 @@
+package com.neurofleetx.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Backoff between attempts of an operation that lost an optimistic locking race,
+ * jittered so that writers that collided once do not collide again in lockstep.
+ */
+final class ConcurrencyRetry {
+
+    private static final long BASE_DELAY_MS = 20;
+
+    private ConcurrencyRetry() {
+    }
+
+    static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(BASE_DELAY_MS, 2 * BASE_DELAY_MS) * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying a concurrent update", e);
+        }
+    }
+}
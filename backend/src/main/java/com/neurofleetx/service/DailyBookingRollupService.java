@@ -0,0 +1,176 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.event.BookingChangedEvent;
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.model.DailyBookingRollup;
+import com.neurofleetx.repository.BookingRepository;
+import com.neurofleetx.repository.DailyBookingRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Maintains one daily_booking_rollup row per booking creation date. Rows are
+ * upserted as bookings are created, repriced or completed, and the previous
+ * day is rebuilt from the bookings table by the end-of-day job.
+ */
+@Service
+@Slf4j
+public class DailyBookingRollupService {
+
+    @Autowired
+    private DailyBookingRollupRepository rollupRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Value("${analytics.daily-rollup.backfill-days:365}")
+    private int backfillDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        LocalDate today = LocalDate.now();
+        try {
+            List<DailyBookingRollup> rollups = getRollups(today.minusDays(backfillDays - 1L), today);
+            log.info("Daily booking rollup ready with {} days", rollups.size());
+        } catch (Exception e) {
+            // Missing days are rebuilt on the first trends read instead
+            log.warn("Daily booking rollup backfill failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${analytics.daily-rollup.cron:0 5 0 * * *}")
+    public void closeDay() {
+        LocalDate today = LocalDate.now();
+        rebuild(List.of(today.minusDays(1), today));
+    }
+
+    /**
+     * Days of trends that are kept as rollup rows, counting back from today.
+     */
+    public int getBackfillDays() {
+        return backfillDays;
+    }
+
+    /**
+     * Returns one rollup per day in the inclusive range, rebuilding any day that
+     * has no row yet. Only days inside the backfill window are stored; older ones
+     * are computed for this read alone.
+     */
+    public synchronized List<DailyBookingRollup> getRollups(LocalDate start, LocalDate end) {
+        Map<LocalDate, DailyBookingRollup> byDate = new HashMap<>();
+        for (DailyBookingRollup rollup : rollupRepository.findByRollupDateBetweenOrderByRollupDateAsc(start, end)) {
+            byDate.put(rollup.getRollupDate(), rollup);
+        }
+
+        Set<LocalDate> missing = new TreeSet<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            if (!byDate.containsKey(date)) {
+                missing.add(date);
+            }
+        }
+        LocalDate oldestStored = LocalDate.now().minusDays(backfillDays - 1L);
+        List<LocalDate> stored = new ArrayList<>();
+        List<LocalDate> olderDays = new ArrayList<>();
+        for (LocalDate date : missing) {
+            (date.isBefore(oldestStored) ? olderDays : stored).add(date);
+        }
+        if (!stored.isEmpty()) {
+            byDate.putAll(rebuild(stored));
+        }
+        if (!olderDays.isEmpty()) {
+            byDate.putAll(summarize(olderDays));
+        }
+
+        List<DailyBookingRollup> rollups = new ArrayList<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            rollups.add(byDate.get(date));
+        }
+        return rollups;
+    }
+
+    /**
+     * Recomputes the given days from the bookings table with one grouped query
+     * and writes them back in a single batch.
+     */
+    public synchronized Map<LocalDate, DailyBookingRollup> rebuild(Collection<LocalDate> dates) {
+        Map<LocalDate, DailyBookingRollup> saved = new HashMap<>();
+        for (DailyBookingRollup rollup : rollupRepository.saveAll(summarize(dates).values())) {
+            saved.put(rollup.getRollupDate(), rollup);
+        }
+        return saved;
+    }
+
+    private Map<LocalDate, DailyBookingRollup> summarize(Collection<LocalDate> dates) {
+        LocalDate first = Collections.min(dates);
+        LocalDate last = Collections.max(dates);
+
+        Map<LocalDate, Object[]> summaries = new HashMap<>();
+        for (Object[] row : bookingRepository.summarizeCreatedByDay(
+                first.atStartOfDay(), last.plusDays(1).atStartOfDay())) {
+            summaries.put(LocalDate.parse((String) row[0]), row);
+        }
+
+        Map<LocalDate, DailyBookingRollup> existing = new HashMap<>();
+        for (DailyBookingRollup rollup : rollupRepository.findAllById(dates)) {
+            existing.put(rollup.getRollupDate(), rollup);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<LocalDate, DailyBookingRollup> rebuilt = new HashMap<>();
+        for (LocalDate date : dates) {
+            DailyBookingRollup rollup = existing.getOrDefault(date, new DailyBookingRollup());
+            Object[] summary = summaries.get(date);
+            rollup.setRollupDate(date);
+            rollup.setBookingCount(summary != null ? ((Number) summary[1]).intValue() : 0);
+            rollup.setRevenue(summary != null ? ((Number) summary[2]).doubleValue() : 0.0);
+            rollup.setCompletedCount(summary != null ? ((Number) summary[3]).intValue() : 0);
+            rollup.setUpdatedAt(now);
+            rebuilt.put(date, rollup);
+        }
+        return rebuilt;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public synchronized void onBookingChanged(BookingChangedEvent event) {
+        Booking booking = event.getBooking();
+        if (booking.getCreatedAt() == null) return;
+
+        double previousPrice = event.getPreviousTotalPrice() != null ? event.getPreviousTotalPrice() : 0.0;
+        double currentPrice = booking.getTotalPrice() != null ? booking.getTotalPrice() : 0.0;
+        boolean wasCompleted = event.getPreviousStatus() == Booking.BookingStatus.COMPLETED;
+        boolean isCompleted = booking.getStatus() == Booking.BookingStatus.COMPLETED;
+
+        int bookingDelta = event.isCreated() ? 1 : 0;
+        double revenueDelta = event.isCreated() ? currentPrice : currentPrice - previousPrice;
+        int completedDelta = (isCompleted ? 1 : 0) - (wasCompleted ? 1 : 0);
+        if (bookingDelta == 0 && revenueDelta == 0.0 && completedDelta == 0) return;
+
+        LocalDate date = booking.getCreatedAt().toLocalDate();
+        Optional<DailyBookingRollup> existing = rollupRepository.findById(date);
+        if (existing.isEmpty()) {
+            // The rebuild already sees the committed booking
+            rebuild(List.of(date));
+            return;
+        }
+
+        DailyBookingRollup rollup = existing.get();
+        rollup.setBookingCount(rollup.getBookingCount() + bookingDelta);
+        rollup.setRevenue(rollup.getRevenue() + revenueDelta);
+        rollup.setCompletedCount(rollup.getCompletedCount() + completedDelta);
+        rollup.setUpdatedAt(LocalDateTime.now());
+        rollupRepository.save(rollup);
+    }
+}
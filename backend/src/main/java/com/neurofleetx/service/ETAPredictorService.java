@@ -2,6 +2,7 @@ package com.neurofleetx.service;
 
 import com.neurofleetx.model.Route;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.Random;
@@ -10,6 +11,9 @@ import java.util.Random;
 @Slf4j
 public class ETAPredictorService {
     
+    @Autowired
+    private TrafficProfileService trafficProfileService;
+    
     private final Random random = new Random();
     
     public int predictETA(double distance, Route.TrafficLevel trafficLevel, boolean isElectric) {
@@ -58,13 +62,7 @@ public class ETAPredictorService {
     }
     
     private double getTimeOfDayMultiplier() {
-        int hour = LocalDateTime.now().getHour();
-        
-        if (hour >= 7 && hour <= 9) return 0.7;
-        if (hour >= 17 && hour <= 19) return 0.75;
-        if (hour >= 22 || hour <= 5) return 1.3;
-        
-        return 1.0;
+        return 1.0 / trafficProfileService.congestionRatio(LocalDateTime.now());
     }
     
     public int recalculateETA(Route route, double currentProgress) {
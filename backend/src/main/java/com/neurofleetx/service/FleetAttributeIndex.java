@@ -0,0 +1,180 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.event.VehicleChangedEvent;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * In-memory index of the attributes vehicle searches filter on, kept current
+ * from vehicle events. Each vehicle gets a slot; availability, electric and
+ * each vehicle type are bitsets over the slots, and capacity is an array of
+ * slots sorted by capacity, so a search is a few bitset intersections plus a
+ * binary search of the capacity range.
+ */
+@Component
+public class FleetAttributeIndex {
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] vehicleIds = new long[64];
+    private int[] capacities = new int[64];
+    private final BitSet used = new BitSet();
+    private final BitSet available = new BitSet();
+    private final BitSet electric = new BitSet();
+    private final Map<Vehicle.VehicleType, BitSet> byType = new EnumMap<>(Vehicle.VehicleType.class);
+    // Used slots in capacity order; rebuilt by the next capacity query after a change
+    private int[] slotsByCapacity = new int[0];
+    private boolean capacityOrderStale = true;
+    private boolean loaded;
+
+    /**
+     * Ids of the AVAILABLE vehicles matching every given filter; null filters
+     * match all vehicles. Vehicles without the electric flag count as not electric.
+     */
+    public synchronized List<Long> findAvailable(Vehicle.VehicleType type, Boolean isElectric,
+                                                 Integer minCapacity, Integer maxCapacity) {
+        ensureLoaded();
+        BitSet matches = (BitSet) available.clone();
+        if (type != null) {
+            matches.and(byType.getOrDefault(type, new BitSet()));
+        }
+        if (isElectric != null) {
+            if (isElectric) {
+                matches.and(electric);
+            } else {
+                matches.andNot(electric);
+            }
+        }
+        if (minCapacity != null || maxCapacity != null) {
+            filterByCapacity(matches, minCapacity != null ? minCapacity : Integer.MIN_VALUE,
+                maxCapacity != null ? maxCapacity : Integer.MAX_VALUE);
+        }
+
+        List<Long> ids = new ArrayList<>(matches.cardinality());
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            ids.add(vehicleIds[slot]);
+        }
+        return ids;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehicleChanged(VehicleChangedEvent event) {
+        if (!loaded) return;
+
+        Vehicle vehicle = event.getVehicle();
+        if (event.getChangeType() == VehicleChangedEvent.ChangeType.DELETED) {
+            remove(vehicle.getId());
+        } else {
+            put(vehicle);
+        }
+    }
+
+    private void filterByCapacity(BitSet matches, int minCapacity, int maxCapacity) {
+        if (minCapacity > maxCapacity) {
+            matches.clear();
+            return;
+        }
+        if (capacityOrderStale) {
+            sortByCapacity();
+        }
+        int from = firstSlotWithCapacityAtLeast(minCapacity);
+        int to = maxCapacity == Integer.MAX_VALUE ? slotsByCapacity.length : firstSlotWithCapacityAtLeast(maxCapacity + 1);
+
+        // Check the remaining matches directly when there are fewer of them than slots in the range
+        if (matches.cardinality() <= to - from) {
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                if (capacities[slot] < minCapacity || capacities[slot] > maxCapacity) {
+                    matches.clear(slot);
+                }
+            }
+            return;
+        }
+        BitSet inRange = new BitSet();
+        for (int i = from; i < to; i++) {
+            inRange.set(slotsByCapacity[i]);
+        }
+        matches.and(inRange);
+    }
+
+    private int firstSlotWithCapacityAtLeast(int capacity) {
+        int low = 0;
+        int high = slotsByCapacity.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (capacities[slotsByCapacity[middle]] < capacity) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void sortByCapacity() {
+        slotsByCapacity = used.stream()
+            .boxed()
+            .sorted(Comparator.comparingInt(slot -> capacities[slot]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        capacityOrderStale = false;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        for (Vehicle vehicle : vehicleRepository.findAll()) {
+            put(vehicle);
+        }
+        loaded = true;
+    }
+
+    private void put(Vehicle vehicle) {
+        Integer existing = slots.get(vehicle.getId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+        } else {
+            slot = used.nextClearBit(0);
+            if (slot == vehicleIds.length) {
+                vehicleIds = Arrays.copyOf(vehicleIds, slot * 2);
+                capacities = Arrays.copyOf(capacities, slot * 2);
+            }
+            used.set(slot);
+            slots.put(vehicle.getId(), slot);
+            vehicleIds[slot] = vehicle.getId();
+            capacityOrderStale = true;
+        }
+
+        int capacity = vehicle.getCapacity() != null ? vehicle.getCapacity() : 0;
+        if (existing == null || capacities[slot] != capacity) {
+            capacities[slot] = capacity;
+            capacityOrderStale = true;
+        }
+        available.set(slot, vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE);
+        electric.set(slot, Boolean.TRUE.equals(vehicle.getIsElectric()));
+        for (Map.Entry<Vehicle.VehicleType, BitSet> type : byType.entrySet()) {
+            type.getValue().clear(slot);
+        }
+        if (vehicle.getType() != null) {
+            byType.computeIfAbsent(vehicle.getType(), t -> new BitSet()).set(slot);
+        }
+    }
+
+    private void remove(long vehicleId) {
+        Integer slot = slots.remove(vehicleId);
+        if (slot == null) return;
+        used.clear(slot);
+        available.clear(slot);
+        electric.clear(slot);
+        for (BitSet type : byType.values()) {
+            type.clear(slot);
+        }
+        capacityOrderStale = true;
+    }
+}
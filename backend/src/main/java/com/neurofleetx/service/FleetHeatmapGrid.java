@@ -0,0 +1,175 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.FleetHeatmapTiles;
+import com.neurofleetx.dto.HeatmapCell;
+import com.neurofleetx.event.VehicleChangedEvent;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Buckets vehicle positions into a fixed lat/lon grid whose cell size halves
+ * with each zoom level. Cell counts for the configured hot zoom levels are kept
+ * up to date from vehicle events, other zoom levels are bucketed on demand from
+ * the in-memory positions. Trips only carry free-text start locations, so they
+ * are not placed on the tiles.
+ */
+@Component
+public class FleetHeatmapGrid {
+
+    public static final int MIN_ZOOM = 1;
+    public static final int MAX_ZOOM = 20;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Value("${analytics.heatmap.cached-zooms:12,14,16}")
+    private int[] cachedZooms;
+
+    private static final class VehiclePoint {
+        final double latitude;
+        final double longitude;
+        final int intensity;
+        final Vehicle.VehicleType type;
+        final Vehicle.VehicleStatus status;
+
+        VehiclePoint(Vehicle vehicle) {
+            this.latitude = vehicle.getLatitude() != null ? vehicle.getLatitude() : Double.NaN;
+            this.longitude = vehicle.getLongitude() != null ? vehicle.getLongitude() : Double.NaN;
+            this.intensity = vehicleIntensity(vehicle);
+            this.type = vehicle.getType();
+            this.status = vehicle.getStatus();
+        }
+
+        boolean hasPosition() {
+            return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+        }
+    }
+
+    // Per cell: {vehicle count, summed intensity}
+    private final Map<Integer, Map<Long, int[]>> cellsByZoom = new HashMap<>();
+    private final Map<Long, VehiclePoint> points = new HashMap<>();
+    private final int[] typeCounts = new int[Vehicle.VehicleType.values().length];
+    private final int[] statusCounts = new int[Vehicle.VehicleStatus.values().length];
+    private boolean loaded;
+
+    public synchronized FleetHeatmapTiles getTiles(int zoom, Double minLat, Double maxLat, Double minLon, Double maxLon) {
+        if (zoom < MIN_ZOOM || zoom > MAX_ZOOM) {
+            throw new RuntimeException("Zoom must be between " + MIN_ZOOM + " and " + MAX_ZOOM);
+        }
+        ensureLoaded();
+
+        Map<Long, int[]> vehicleCells = cellsByZoom.get(zoom);
+        if (vehicleCells == null) {
+            vehicleCells = new HashMap<>();
+            for (VehiclePoint point : points.values()) {
+                addToCell(vehicleCells, zoom, point, 1);
+            }
+        }
+
+        double[] bounds = {
+            minLat != null ? minLat : -90.0, maxLat != null ? maxLat : 90.0,
+            minLon != null ? minLon : -180.0, maxLon != null ? maxLon : 180.0
+        };
+
+        List<HeatmapCell> vehicleResult = new ArrayList<>();
+        for (Map.Entry<Long, int[]> entry : vehicleCells.entrySet()) {
+            int[] cell = entry.getValue();
+            addCell(vehicleResult, zoom, entry.getKey(), bounds, cell[0], Math.round((float) cell[1] / cell[0]));
+        }
+
+        Map<String, Integer> typeDistribution = new HashMap<>();
+        for (Vehicle.VehicleType type : Vehicle.VehicleType.values()) {
+            if (typeCounts[type.ordinal()] > 0) typeDistribution.put(type.name(), typeCounts[type.ordinal()]);
+        }
+        Map<String, Integer> statusDistribution = new HashMap<>();
+        for (Vehicle.VehicleStatus status : Vehicle.VehicleStatus.values()) {
+            if (statusCounts[status.ordinal()] > 0) statusDistribution.put(status.name(), statusCounts[status.ordinal()]);
+        }
+
+        return new FleetHeatmapTiles(zoom, cellSize(zoom), vehicleResult, typeDistribution, statusDistribution);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehicleChanged(VehicleChangedEvent event) {
+        if (!loaded) return;
+
+        Vehicle vehicle = event.getVehicle();
+        VehiclePoint previous = points.remove(vehicle.getId());
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        if (event.getChangeType() != VehicleChangedEvent.ChangeType.DELETED) {
+            VehiclePoint current = new VehiclePoint(vehicle);
+            points.put(vehicle.getId(), current);
+            apply(current, 1);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        for (int zoom : cachedZooms) {
+            cellsByZoom.put(zoom, new HashMap<>());
+        }
+        for (Vehicle vehicle : vehicleRepository.findAll()) {
+            VehiclePoint point = new VehiclePoint(vehicle);
+            points.put(vehicle.getId(), point);
+            apply(point, 1);
+        }
+        loaded = true;
+    }
+
+    private void apply(VehiclePoint point, int sign) {
+        typeCounts[point.type.ordinal()] += sign;
+        statusCounts[point.status.ordinal()] += sign;
+        for (Map.Entry<Integer, Map<Long, int[]>> entry : cellsByZoom.entrySet()) {
+            addToCell(entry.getValue(), entry.getKey(), point, sign);
+        }
+    }
+
+    private void addToCell(Map<Long, int[]> cells, int zoom, VehiclePoint point, int sign) {
+        if (!point.hasPosition()) return;
+        long key = cellKey(zoom, point.latitude, point.longitude);
+        int[] cell = cells.computeIfAbsent(key, k -> new int[2]);
+        cell[0] += sign;
+        cell[1] += sign * point.intensity;
+        if (cell[0] <= 0) {
+            cells.remove(key);
+        }
+    }
+
+    private void addCell(List<HeatmapCell> cells, int zoom, long key, double[] bounds, int count, int intensity) {
+        double size = cellSize(zoom);
+        double latitude = (int) (key >> 32) * size - 90.0 + size / 2;
+        double longitude = (int) key * size - 180.0 + size / 2;
+        if (latitude < bounds[0] || latitude > bounds[1] || longitude < bounds[2] || longitude > bounds[3]) return;
+        cells.add(new HeatmapCell(latitude, longitude, count, intensity));
+    }
+
+    private static double cellSize(int zoom) {
+        return 360.0 / (1 << zoom);
+    }
+
+    private static long cellKey(int zoom, double latitude, double longitude) {
+        double size = cellSize(zoom);
+        long row = (long) Math.floor((latitude + 90.0) / size);
+        long column = (long) Math.floor((longitude + 180.0) / size);
+        return (row << 32) | (column & 0xffffffffL);
+    }
+
+    static int vehicleIntensity(Vehicle vehicle) {
+        if (vehicle.getStatus() == Vehicle.VehicleStatus.IN_USE) {
+            return 100;
+        } else if (vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE) {
+            return 60;
+        } else if (vehicle.getStatus() == Vehicle.VehicleStatus.MAINTENANCE) {
+            return 30;
+        }
+        return 10;
+    }
+}
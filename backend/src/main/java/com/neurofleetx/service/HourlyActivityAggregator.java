@@ -0,0 +1,80 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.HourlyActivityData;
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Builds the 24-hour booking histogram either in the database with a single
+ * GROUP BY on the start hour, or in one sweep over already loaded bookings.
+ */
+@Component
+public class HourlyActivityAggregator {
+
+    private static final int HOURS = 24;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    public HourlyActivityData aggregateInDatabase() {
+        int[] bookingCounts = new int[HOURS];
+        double[] revenues = new double[HOURS];
+        int[] vehicleUsage = new int[HOURS];
+
+        for (Object[] row : bookingRepository.aggregateByStartHour()) {
+            if (row[0] == null) continue;
+            int hour = ((Number) row[0]).intValue();
+            bookingCounts[hour] = ((Number) row[1]).intValue();
+            revenues[hour] = ((Number) row[2]).doubleValue();
+            vehicleUsage[hour] = ((Number) row[3]).intValue();
+        }
+
+        return toResponse(bookingCounts, revenues, vehicleUsage);
+    }
+
+    public HourlyActivityData aggregate(Iterable<Booking> bookings) {
+        int[] bookingCounts = new int[HOURS];
+        double[] revenues = new double[HOURS];
+        BitSet[] vehiclesByHour = new BitSet[HOURS];
+        for (int hour = 0; hour < HOURS; hour++) {
+            vehiclesByHour[hour] = new BitSet();
+        }
+
+        for (Booking booking : bookings) {
+            if (booking.getStartTime() == null) continue;
+            int hour = booking.getStartTime().getHour();
+            bookingCounts[hour]++;
+            revenues[hour] += booking.getTotalPrice() != null ? booking.getTotalPrice() : 0.0;
+            vehiclesByHour[hour].set(Math.toIntExact(booking.getVehicle().getId()));
+        }
+
+        int[] vehicleUsage = new int[HOURS];
+        for (int hour = 0; hour < HOURS; hour++) {
+            vehicleUsage[hour] = vehiclesByHour[hour].cardinality();
+        }
+
+        return toResponse(bookingCounts, revenues, vehicleUsage);
+    }
+
+    private HourlyActivityData toResponse(int[] bookingCounts, double[] revenues, int[] vehicleUsage) {
+        List<Integer> hours = new ArrayList<>(HOURS);
+        List<Integer> counts = new ArrayList<>(HOURS);
+        List<Double> revenueList = new ArrayList<>(HOURS);
+        List<Integer> usage = new ArrayList<>(HOURS);
+
+        for (int hour = 0; hour < HOURS; hour++) {
+            hours.add(hour);
+            counts.add(bookingCounts[hour]);
+            revenueList.add(Math.round(revenues[hour] * 100.0) / 100.0);
+            usage.add(vehicleUsage[hour]);
+        }
+
+        return new HourlyActivityData(hours, counts, revenueList, usage);
+    }
+}
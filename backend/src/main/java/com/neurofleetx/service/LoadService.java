@@ -1,21 +1,59 @@
 package com.neurofleetx.service;
 
+import com.neurofleetx.dto.LoadTour;
+import com.neurofleetx.dto.LoadTourPlan;
+import com.neurofleetx.dto.RouteMatrixPoint;
+import com.neurofleetx.dto.RouteMatrixRequest;
+import com.neurofleetx.dto.RouteMatrixResponse;
 import com.neurofleetx.dto.VehicleAssignmentRequest;
+import com.neurofleetx.event.VehicleChangedEvent;
 import com.neurofleetx.model.Load;
+import com.neurofleetx.model.Route;
 import com.neurofleetx.model.Vehicle;
 import com.neurofleetx.repository.LoadRepository;
+import com.neurofleetx.repository.RouteRepository;
 import com.neurofleetx.repository.VehicleRepository;
+import com.neurofleetx.routing.CapacitatedVrpSolver;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 @Service
 @Slf4j
 public class LoadService {
     
+    // Pickup points closer than about 10 m share a depot
+    private static final double DEPOT_CELL_DEGREES = 0.0001;
+    
+    // Vehicles need more than this battery (electric) or fuel level to take a load
+    private static final int MIN_BATTERY_LEVEL = 30;
+    private static final int MIN_FUEL_LEVEL = 20;
+    
+    private static final int MAX_ASSIGNMENT_ATTEMPTS = 5;
+    
+    // Loads still on their vehicle; a tour vehicle is released once none are left
+    private static final Set<Load.LoadStatus> ON_BOARD_STATUSES =
+        EnumSet.of(Load.LoadStatus.ASSIGNED, Load.LoadStatus.IN_TRANSIT);
+    
+    // Batch assignment costs in km: an empty vehicle counts as this much extra distance,
+    // and leaving a load unassigned as this much, both scaled by the load's priority
+    private static final double CAPACITY_FIT_KM = 5.0;
+    private static final double UNASSIGNED_COST_KM = 1000.0;
+    
     @Autowired
     private LoadRepository loadRepository;
     
@@ -25,6 +63,33 @@ public class LoadService {
     @Autowired
     private RouteOptimizationEngine optimizationEngine;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private RouteRepository routeRepository;
+    
+    @Autowired
+    private RouteMatrixService routeMatrixService;
+    
+    @Autowired
+    private VehicleSpatialIndex vehicleSpatialIndex;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${fleet.spatial-index.candidates:16}")
+    private int nearestCandidates;
+    
+    @Value("${fleet.assignment.candidates-per-load:32}")
+    private int batchCandidates;
+    
+    @Value("${routing.vrp.time-budget-ms:2000}")
+    private long vrpTimeBudgetMs;
+    
+    @Value("${routing.vrp.max-stops-per-depot:400}")
+    private int vrpMaxStops;
+    
     public Load createLoad(Load load) {
         load.setCreatedAt(LocalDateTime.now());
         load.setStatus(Load.LoadStatus.PENDING);
@@ -44,60 +109,90 @@ public class LoadService {
         return loadRepository.findPendingLoadsByPriority();
     }
     
+    /**
+     * Assigns the best vehicle to the load. The vehicle and load are taken with
+     * guarded updates in one transaction; if another dispatcher took either one
+     * first, the load is re-read and a vehicle is picked again. A load that has
+     * been assigned meanwhile is returned with its existing assignment.
+     */
     public Load assignVehicleToLoad(VehicleAssignmentRequest request) {
-        Load load = getLoadById(request.getLoadId());
-        
-        Vehicle bestVehicle = findBestVehicle(
-            load.getPickupLatitude(),
-            load.getPickupLongitude(),
-            load.getWeight()
-        );
-        
-        if (bestVehicle == null) {
-            throw new RuntimeException("No suitable vehicle available for this load");
+        for (int attempt = 1; ; attempt++) {
+            Load load = getLoadById(request.getLoadId());
+            if (load.getVehicleId() != null) {
+                log.info("Load {} is already assigned to vehicle {}", load.getLoadId(), load.getVehicleId());
+                return load;
+            }
+            if (load.getStatus() != Load.LoadStatus.PENDING) {
+                throw new RuntimeException("Load " + load.getLoadId() + " is " + load.getStatus() + " and cannot be assigned");
+            }
+            
+            Vehicle bestVehicle = findBestVehicle(
+                load.getPickupLatitude(),
+                load.getPickupLongitude(),
+                load.getWeight()
+            );
+            
+            if (bestVehicle == null) {
+                throw new RuntimeException("No suitable vehicle available for this load");
+            }
+            
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                boolean assigned = transactionTemplate.execute(status -> {
+                    if (vehicleRepository.updateStatusIfCurrent(bestVehicle.getId(),
+                            Vehicle.VehicleStatus.AVAILABLE, Vehicle.VehicleStatus.IN_USE) == 0) {
+                        return false;
+                    }
+                    if (loadRepository.assignIfUnassigned(load.getLoadId(), bestVehicle.getId(), now) == 0) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    bestVehicle.setStatus(Vehicle.VehicleStatus.IN_USE);
+                    eventPublisher.publishEvent(new VehicleChangedEvent(bestVehicle, Vehicle.VehicleStatus.AVAILABLE,
+                        VehicleChangedEvent.ChangeType.UPDATED));
+                    return true;
+                });
+                
+                if (assigned) {
+                    log.info("Assigned vehicle {} to load {}", bestVehicle.getVehicleNumber(), load.getLoadId());
+                    return getLoadById(load.getLoadId());
+                }
+            } catch (ConcurrencyFailureException e) {
+                log.debug("Assigning load {} failed: {}", load.getLoadId(), e.getMessage());
+            }
+            
+            if (attempt >= MAX_ASSIGNMENT_ATTEMPTS) {
+                throw new RuntimeException("Could not assign load " + load.getLoadId()
+                    + " after " + attempt + " attempts due to concurrent updates");
+            }
+            log.warn("Vehicle {} or load {} changed concurrently, picking again",
+                     bestVehicle.getVehicleNumber(), load.getLoadId());
+            ConcurrencyRetry.backoff(attempt);
         }
-        
-        load.setVehicleId(bestVehicle.getId());
-        load.setStatus(Load.LoadStatus.ASSIGNED);
-        load.setAssignedAt(LocalDateTime.now());
-        
-        bestVehicle.setStatus(Vehicle.VehicleStatus.IN_USE);
-        vehicleRepository.save(bestVehicle);
-        
-        log.info("Assigned vehicle {} to load {}", bestVehicle.getVehicleNumber(), load.getLoadId());
-        
-        return loadRepository.save(load);
     }
     
     public Vehicle findBestVehicle(Double pickupLat, Double pickupLon, Double weight) {
-        List<Vehicle> availableVehicles = vehicleRepository.findByStatus(Vehicle.VehicleStatus.AVAILABLE);
-        
-        if (availableVehicles.isEmpty()) {
+        if (pickupLat == null || pickupLon == null) {
             return null;
         }
         
-        return availableVehicles.stream()
-            .filter(v -> v.getCapacity() >= weight)
-            .filter(v -> v.getLatitude() != null && v.getLongitude() != null)
-            .filter(v -> {
-                if (v.getIsElectric()) {
-                    return v.getBatteryLevel() != null && v.getBatteryLevel() > 30;
-                } else {
-                    return v.getFuelLevel() != null && v.getFuelLevel() > 20;
-                }
-            })
-            .min(Comparator.comparingDouble(v -> {
-                double distance = optimizationEngine.calculateHaversineDistance(
-                    v.getLatitude(), v.getLongitude(),
-                    pickupLat, pickupLon
-                );
-                
-                double capacityFactor = (double) v.getCapacity() / 1000.0;
-                double energyFactor = v.getIsElectric() ? 0.8 : 1.0;
-                
-                return distance * capacityFactor * energyFactor;
-            }))
-            .orElse(null);
+        // Only the nearest matching vehicles are scored and loaded
+        List<VehicleSpatialIndex.Candidate> candidates = vehicleSpatialIndex.nearest(
+            pickupLat, pickupLon, nearestCandidates, weight, MIN_BATTERY_LEVEL, MIN_FUEL_LEVEL);
+        candidates.sort(Comparator.comparingDouble(c -> {
+            double capacityFactor = c.getCapacity() / 1000.0;
+            double energyFactor = c.isElectric() ? 0.8 : 1.0;
+            
+            return c.getDistanceKm() * capacityFactor * energyFactor;
+        }));
+        
+        for (VehicleSpatialIndex.Candidate candidate : candidates) {
+            Vehicle vehicle = vehicleRepository.findById(candidate.getVehicleId()).orElse(null);
+            if (vehicle != null && vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE) {
+                return vehicle;
+            }
+        }
+        return null;
     }
     
     public Load updateLoadStatus(Long loadId, Load.LoadStatus status) {
@@ -106,51 +201,406 @@ public class LoadService {
         
         if (status == Load.LoadStatus.DELIVERED) {
             load.setDeliveredAt(LocalDateTime.now());
+        }
+        
+        Load saved = loadRepository.save(load);
+        if (status == Load.LoadStatus.DELIVERED && saved.getVehicleId() != null) {
+            releaseVehicle(saved);
+        }
+        return saved;
+    }
+    
+    /**
+     * Makes the vehicle of a delivered load available again, unless it belongs
+     * to a tour whose other loads are still on board. The tour's route is
+     * completed together with its last load.
+     */
+    private void releaseVehicle(Load delivered) {
+        Route route = null;
+        if (delivered.getAssignedRouteId() != null) {
+            if (loadRepository.countByAssignedRouteIdAndStatusIn(delivered.getAssignedRouteId(), ON_BOARD_STATUSES) > 0) {
+                return;
+            }
+            route = routeRepository.findById(delivered.getAssignedRouteId()).orElse(null);
+        }
+        Vehicle vehicle = vehicleRepository.findById(delivered.getVehicleId()).orElse(null);
+        
+        // Writes first, so the transaction never has to upgrade a read lock
+        Route tourRoute = route;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (vehicle != null && vehicleRepository.updateStatusIfCurrent(vehicle.getId(),
+                    Vehicle.VehicleStatus.IN_USE, Vehicle.VehicleStatus.AVAILABLE) == 1) {
+                vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+                eventPublisher.publishEvent(new VehicleChangedEvent(vehicle, Vehicle.VehicleStatus.IN_USE,
+                    VehicleChangedEvent.ChangeType.UPDATED));
+            }
+            if (tourRoute != null && tourRoute.getStatus() != Route.RouteStatus.COMPLETED) {
+                tourRoute.setStatus(Route.RouteStatus.COMPLETED);
+                tourRoute.setCompletedAt(LocalDateTime.now());
+                routeRepository.save(tourRoute);
+            }
+        });
+    }
+    
+    /**
+     * Assigns the unassigned pending loads to available vehicles as one batch.
+     * Each load is offered its nearest matching vehicles, costed by distance and
+     * spare capacity and weighted by priority, and the batch is solved as a
+     * minimum-cost assignment so early loads cannot take the vehicles that urgent
+     * ones need. All updates are written in a single transaction.
+     */
+    public List<Load> autoAssignPendingLoads() {
+        long started = System.currentTimeMillis();
+        List<Load> pendingLoads = loadRepository.findUnassignedLoads();
+        int rows = pendingLoads.size();
+        
+        Map<Long, Integer> columns = new HashMap<>();
+        List<Long> vehicleIds = new ArrayList<>();
+        int[] rowStart = new int[rows + 1];
+        int[] edgeColumns = new int[rows * batchCandidates];
+        double[] edgeCosts = new double[edgeColumns.length];
+        double[] unassignedCosts = new double[rows];
+        int edges = 0;
+        for (int i = 0; i < rows; i++) {
+            Load load = pendingLoads.get(i);
+            double priorityWeight = 1 << load.getPriority().ordinal();
+            unassignedCosts[i] = priorityWeight * UNASSIGNED_COST_KM;
+            rowStart[i] = edges;
+            if (load.getPickupLatitude() == null || load.getPickupLongitude() == null) continue;
             
-            if (load.getVehicleId() != null) {
-                Vehicle vehicle = vehicleRepository.findById(load.getVehicleId()).orElse(null);
-                if (vehicle != null) {
-                    vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
-                    vehicleRepository.save(vehicle);
+            for (VehicleSpatialIndex.Candidate candidate : vehicleSpatialIndex.nearest(load.getPickupLatitude(),
+                    load.getPickupLongitude(), batchCandidates, load.getWeight(), MIN_BATTERY_LEVEL, MIN_FUEL_LEVEL)) {
+                edgeColumns[edges] = columns.computeIfAbsent(candidate.getVehicleId(), id -> {
+                    vehicleIds.add(id);
+                    return vehicleIds.size() - 1;
+                });
+                edgeCosts[edges++] = priorityWeight * assignmentCost(candidate, load.getWeight());
+            }
+        }
+        rowStart[rows] = edges;
+        int[] assigned = MinCostAssignment.solve(rows, vehicleIds.size(), rowStart, edgeColumns, edgeCosts, unassignedCosts);
+        
+        List<Long> assignedVehicleIds = new ArrayList<>();
+        for (int column : assigned) {
+            if (column >= 0) assignedVehicleIds.add(vehicleIds.get(column));
+        }
+        Map<Long, Vehicle> vehicles = new HashMap<>();
+        vehicleRepository.findAllById(assignedVehicleIds).forEach(v -> vehicles.put(v.getId(), v));
+        
+        // Only guarded updates run inside the transaction, so it never has to upgrade a
+        // read lock; a load or vehicle changed since it was read is skipped, and the whole
+        // transaction is retried if SQLite reports the database busy
+        LocalDateTime now = LocalDateTime.now();
+        Integer assignedCount = null;
+        for (int attempt = 1; assignedCount == null; attempt++) {
+            try {
+                assignedCount = transactionTemplate.execute(status -> {
+                    int count = 0;
+                    for (int i = 0; i < rows; i++) {
+                        if (assigned[i] < 0) continue;
+                        Load load = pendingLoads.get(i);
+                        Vehicle vehicle = vehicles.get(vehicleIds.get(assigned[i]));
+                        if (vehicle == null || vehicleRepository.updateStatusIfCurrent(vehicle.getId(),
+                                Vehicle.VehicleStatus.AVAILABLE, Vehicle.VehicleStatus.IN_USE) == 0) {
+                            continue;
+                        }
+                        if (loadRepository.assignIfUnassigned(load.getLoadId(), vehicle.getId(), now) == 0) {
+                            vehicleRepository.updateStatusIfCurrent(vehicle.getId(),
+                                Vehicle.VehicleStatus.IN_USE, Vehicle.VehicleStatus.AVAILABLE);
+                            continue;
+                        }
+                        vehicle.setStatus(Vehicle.VehicleStatus.IN_USE);
+                        eventPublisher.publishEvent(new VehicleChangedEvent(vehicle, Vehicle.VehicleStatus.AVAILABLE,
+                            VehicleChangedEvent.ChangeType.UPDATED));
+                        count++;
+                        
+                        log.debug("Auto-assigned vehicle {} to load {}", vehicle.getVehicleNumber(), load.getLoadId());
+                    }
+                    return count;
+                });
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_ASSIGNMENT_ATTEMPTS) {
+                    throw new RuntimeException("Could not store the auto-assignment after " + attempt
+                        + " attempts due to concurrent updates");
                 }
+                log.warn("Storing auto-assignment failed on attempt {}, retrying", attempt);
+                ConcurrencyRetry.backoff(attempt);
             }
         }
         
-        return loadRepository.save(load);
+        log.info("Auto-assigned {} of {} pending loads in {} ms",
+                 assignedCount, rows, System.currentTimeMillis() - started);
+        return loadRepository.findByStatus(Load.LoadStatus.ASSIGNED);
     }
     
-    public List<Load> autoAssignPendingLoads() {
+    private static double assignmentCost(VehicleSpatialIndex.Candidate candidate, double weight) {
+        return assignmentCost(candidate.getDistanceKm(), candidate.isElectric(), candidate.getCapacity(), weight);
+    }
+    
+    private static double assignmentCost(double distanceKm, boolean electric, double capacity, double weight) {
+        double energyFactor = electric ? 0.8 : 1.0;
+        double spareCapacity = capacity > 0 ? (capacity - weight) / capacity : 0.0;
+        
+        return distanceKm * energyFactor + spareCapacity * CAPACITY_FIT_KM;
+    }
+    
+    /**
+     * Plans multi-stop tours for the unassigned pending loads. Loads sharing a
+     * pickup point are routed together from that depot as a capacitated VRP over
+     * road-network travel times; each tour is stored as one route whose path lists
+     * the stops in delivery order, and goes to the smallest available vehicle that
+     * can carry it. Loads that fit no tour or vehicle stay pending, as do the loads
+     * of a tour whose vehicle or loads were taken while it was being planned.
+     */
+    public LoadTourPlan planPendingLoadTours() {
+        long started = System.currentTimeMillis();
         List<Load> pendingLoads = loadRepository.findUnassignedLoads();
+        List<Vehicle> fleet = new ArrayList<>(vehicleRepository.findByStatus(Vehicle.VehicleStatus.AVAILABLE).stream()
+            .filter(v -> v.getCapacity() != null && v.getCapacity() > 0)
+            .filter(this::isDispatchable)
+            .toList());
         
+        List<Long> unassigned = new ArrayList<>();
+        Map<String, List<Load>> depots = new LinkedHashMap<>();
         for (Load load : pendingLoads) {
+            if (load.getPickupLatitude() == null || load.getPickupLongitude() == null
+                    || load.getDestinationLatitude() == null || load.getDestinationLongitude() == null) {
+                unassigned.add(load.getLoadId());
+                continue;
+            }
+            String depotKey = Math.round(load.getPickupLatitude() / DEPOT_CELL_DEGREES) + ":"
+                + Math.round(load.getPickupLongitude() / DEPOT_CELL_DEGREES);
+            depots.computeIfAbsent(depotKey, key -> new ArrayList<>()).add(load);
+        }
+        
+        List<Route> routes = new ArrayList<>();
+        List<Vehicle> vehicles = new ArrayList<>();
+        List<List<Load>> tourLoads = new ArrayList<>();
+        int depotsLeft = depots.size();
+        long deadline = started + vrpTimeBudgetMs;
+        for (List<Load> depotLoads : depots.values()) {
+            long budget = Math.max(1, (deadline - System.currentTimeMillis()) / depotsLeft--);
+            planDepotTours(depotLoads, fleet, budget, routes, vehicles, tourLoads, unassigned);
+        }
+        
+        // Planning read everything outside a transaction, so the tours are stored with guarded
+        // updates in one transaction, retried whole if SQLite reports the database busy
+        LocalDateTime now = LocalDateTime.now();
+        List<LoadTour> tours = null;
+        for (int attempt = 1; tours == null; attempt++) {
+            List<Long> dropped = new ArrayList<>();
+            routes.forEach(route -> route.setRouteId(null));
             try {
-                Vehicle vehicle = findBestVehicle(
-                    load.getPickupLatitude(),
-                    load.getPickupLongitude(),
-                    load.getWeight()
-                );
+                tours = transactionTemplate.execute(status -> storeTours(routes, vehicles, tourLoads, now, dropped));
+                unassigned.addAll(dropped);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_ASSIGNMENT_ATTEMPTS) {
+                    throw new RuntimeException("Could not store the planned tours after " + attempt
+                        + " attempts due to concurrent updates");
+                }
+                log.warn("Storing planned tours failed on attempt {}, retrying", attempt);
+                ConcurrencyRetry.backoff(attempt);
+            }
+        }
+        double totalDistance = tours.stream().mapToDouble(LoadTour::getDistanceKm).sum();
+        int assignedCount = tours.stream().mapToInt(tour -> tour.getLoadIds().size()).sum();
+        
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Planned {} tours for {} of {} pending loads in {} ms",
+                 tours.size(), assignedCount, pendingLoads.size(), elapsed);
+        return new LoadTourPlan(tours, unassigned, totalDistance, elapsed);
+    }
+    
+    /**
+     * Stores the planned tours. A tour is kept only if its vehicle is still
+     * available and every one of its loads is still unassigned; otherwise its
+     * route is removed, anything it had taken is released and the loads it did
+     * not lose to another assignment are added to {@code dropped}.
+     */
+    private List<LoadTour> storeTours(List<Route> routes, List<Vehicle> vehicles, List<List<Load>> tourLoads,
+                                      LocalDateTime now, List<Long> dropped) {
+        // Flushed before the guarded updates, which clear the persistence context
+        routeRepository.saveAllAndFlush(routes);
+        List<LoadTour> tours = new ArrayList<>();
+        List<Long> droppedRouteIds = new ArrayList<>();
+        for (int t = 0; t < routes.size(); t++) {
+            Route route = routes.get(t);
+            Vehicle vehicle = vehicles.get(t);
+            List<Load> loads = tourLoads.get(t);
+            
+            boolean vehicleTaken = vehicleRepository.updateStatusIfCurrent(vehicle.getId(),
+                Vehicle.VehicleStatus.AVAILABLE, Vehicle.VehicleStatus.IN_USE) == 1;
+            Load lost = null;
+            if (vehicleTaken) {
+                for (Load load : loads) {
+                    if (loadRepository.assignToRouteIfUnassigned(load.getLoadId(), vehicle.getId(),
+                            route.getRouteId(), now) == 0) {
+                        lost = load;
+                        break;
+                    }
+                }
+            }
+            if (!vehicleTaken || lost != null) {
+                if (vehicleTaken) {
+                    loadRepository.releaseRoute(route.getRouteId());
+                    vehicleRepository.updateStatusIfCurrent(vehicle.getId(),
+                        Vehicle.VehicleStatus.IN_USE, Vehicle.VehicleStatus.AVAILABLE);
+                }
+                droppedRouteIds.add(route.getRouteId());
+                for (Load load : loads) {
+                    if (load != lost) dropped.add(load.getLoadId());
+                }
+                log.debug("Dropped tour for vehicle {}: vehicle or loads changed since planning",
+                          vehicle.getVehicleNumber());
+                continue;
+            }
+            
+            vehicle.setStatus(Vehicle.VehicleStatus.IN_USE);
+            eventPublisher.publishEvent(new VehicleChangedEvent(vehicle, Vehicle.VehicleStatus.AVAILABLE,
+                VehicleChangedEvent.ChangeType.UPDATED));
+            tours.add(new LoadTour(route.getRouteId(), vehicle.getId(), vehicle.getVehicleNumber(),
+                loads.stream().map(Load::getLoadId).toList(), loads.stream().mapToDouble(Load::getWeight).sum(),
+                vehicle.getCapacity(), route.getDistanceKm(), route.getEtaMinutes()));
+        }
+        routeRepository.deleteAllByIdInBatch(droppedRouteIds);
+        return tours;
+    }
+    
+    private void planDepotTours(List<Load> depotLoads, List<Vehicle> fleet, long budgetMs,
+                                List<Route> routes, List<Vehicle> vehicles, List<List<Load>> tourLoads,
+                                List<Long> unassigned) {
+        if (fleet.isEmpty()) {
+            depotLoads.forEach(load -> unassigned.add(load.getLoadId()));
+            return;
+        }
+        // Urgent loads first when a depot has more stops than one matrix allows
+        depotLoads.sort(Comparator.comparing(Load::getPriority).reversed()
+            .thenComparing(Load::getCreatedAt));
+        if (depotLoads.size() > vrpMaxStops) {
+            depotLoads.subList(vrpMaxStops, depotLoads.size()).forEach(load -> unassigned.add(load.getLoadId()));
+            depotLoads = depotLoads.subList(0, vrpMaxStops);
+        }
+        
+        Load first = depotLoads.get(0);
+        List<RouteMatrixPoint> points = new ArrayList<>();
+        points.add(new RouteMatrixPoint(first.getPickupLatitude(), first.getPickupLongitude()));
+        double[] demands = new double[depotLoads.size() + 1];
+        for (int i = 0; i < depotLoads.size(); i++) {
+            Load load = depotLoads.get(i);
+            points.add(new RouteMatrixPoint(load.getDestinationLatitude(), load.getDestinationLongitude()));
+            demands[i + 1] = load.getWeight();
+        }
+        RouteMatrixResponse matrix = routeMatrixService.computeMatrix(
+            new RouteMatrixRequest(points, points, Route.OptimizationType.FASTEST, null));
+        
+        // Tours are solved for the largest vehicle left, and loads that miss out are
+        // solved again for the smaller vehicles that remain
+        boolean[] planned = new boolean[demands.length];
+        long deadline = System.currentTimeMillis() + budgetMs;
+        boolean progress = true;
+        while (progress && !fleet.isEmpty()) {
+            progress = false;
+            int[] stops = IntStream.range(0, demands.length).filter(i -> !planned[i]).toArray();
+            if (stops.length == 1) break;
+            float[][] costs = new float[stops.length][stops.length];
+            double[] stopDemands = new double[stops.length];
+            for (int i = 0; i < stops.length; i++) {
+                stopDemands[i] = demands[stops[i]];
+                for (int j = 0; j < stops.length; j++) {
+                    costs[i][j] = matrix.getTimesMinutes()[stops[i]][stops[j]];
+                }
+            }
+            double capacity = fleet.stream().mapToInt(Vehicle::getCapacity).max().orElse(0);
+            List<int[]> solved = CapacitatedVrpSolver.solve(costs, stopDemands, capacity,
+                Math.max(1, deadline - System.currentTimeMillis()));
+            
+            // Heaviest tours pick first; each takes the vehicle that fits at the lowest
+            // auto-assignment cost, trading distance to the depot against spare capacity
+            solved.sort(Comparator.comparingDouble((int[] tour) -> tourWeight(tour, stopDemands)).reversed());
+            for (int[] tour : solved) {
+                double weight = tourWeight(tour, stopDemands);
+                Vehicle vehicle = fleet.stream()
+                    .filter(v -> v.getCapacity() >= weight)
+                    .min(Comparator.comparingDouble(v -> assignmentCost(optimizationEngine.calculateHaversineDistance(
+                            v.getLatitude(), v.getLongitude(), first.getPickupLatitude(), first.getPickupLongitude()),
+                        Boolean.TRUE.equals(v.getIsElectric()), v.getCapacity(), weight)))
+                    .orElse(null);
+                if (vehicle == null) continue;
+                fleet.remove(vehicle);
                 
-                if (vehicle != null) {
-                    load.setVehicleId(vehicle.getId());
-                    load.setStatus(Load.LoadStatus.ASSIGNED);
-                    load.setAssignedAt(LocalDateTime.now());
-                    
-                    vehicle.setStatus(Vehicle.VehicleStatus.IN_USE);
-                    vehicleRepository.save(vehicle);
-                    loadRepository.save(load);
-                    
-                    log.info("Auto-assigned vehicle {} to load {}", 
-                             vehicle.getVehicleNumber(), load.getLoadId());
+                List<Load> loads = new ArrayList<>();
+                for (int k = 0; k < tour.length; k++) {
+                    tour[k] = stops[tour[k]];
+                    loads.add(depotLoads.get(tour[k] - 1));
+                    planned[tour[k]] = true;
                 }
-            } catch (Exception e) {
-                log.error("Failed to auto-assign load {}: {}", load.getLoadId(), e.getMessage());
+                routes.add(createTourRoute(first, loads, tour, matrix, vehicle));
+                vehicles.add(vehicle);
+                tourLoads.add(loads);
+                progress = true;
             }
         }
+        for (int i = 1; i < demands.length; i++) {
+            if (!planned[i]) unassigned.add(depotLoads.get(i - 1).getLoadId());
+        }
+    }
+    
+    private Route createTourRoute(Load depot, List<Load> loads, int[] tour,
+                                  RouteMatrixResponse matrix, Vehicle vehicle) {
+        List<String> stops = new ArrayList<>();
+        stops.add(depotName(depot));
+        double distance = 0.0;
+        double time = 0.0;
+        int previous = 0;
+        for (int k = 0; k < tour.length; k++) {
+            stops.add(loads.get(k).getDestination());
+            distance += matrix.getDistancesKm()[previous][tour[k]];
+            time += matrix.getTimesMinutes()[previous][tour[k]];
+            previous = tour[k];
+        }
+        stops.add(depotName(depot));
+        distance += matrix.getDistancesKm()[previous][0];
+        time += matrix.getTimesMinutes()[previous][0];
         
-        return loadRepository.findByStatus(Load.LoadStatus.ASSIGNED);
+        Route route = new Route();
+        route.setVehicleId(vehicle.getId());
+        route.setStartLocation(depotName(depot));
+        route.setEndLocation(depotName(depot));
+        route.setStartLatitude(depot.getPickupLatitude());
+        route.setStartLongitude(depot.getPickupLongitude());
+        route.setEndLatitude(depot.getPickupLatitude());
+        route.setEndLongitude(depot.getPickupLongitude());
+        route.setDistanceKm(distance);
+        route.setEtaMinutes((int) Math.ceil(time));
+        route.setOptimizationType(Route.OptimizationType.FASTEST);
+        route.setOptimizedPath(String.join(" -> ", stops));
+        route.setStatus(Route.RouteStatus.PENDING);
+        return route;
+    }
+    
+    private static double tourWeight(int[] tour, double[] demands) {
+        double weight = 0.0;
+        for (int stop : tour) weight += demands[stop];
+        return weight;
+    }
+    
+    private static String depotName(Load load) {
+        return load.getPickupLocation() != null ? load.getPickupLocation()
+            : load.getPickupLatitude() + "," + load.getPickupLongitude();
     }
     
     public void deleteLoad(Long id) {
         loadRepository.deleteById(id);
     }
+    
+    private boolean isDispatchable(Vehicle v) {
+        if (v.getLatitude() == null || v.getLongitude() == null) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(v.getIsElectric())) {
+            return v.getBatteryLevel() != null && v.getBatteryLevel() > MIN_BATTERY_LEVEL;
+        } else {
+            return v.getFuelLevel() != null && v.getFuelLevel() > MIN_FUEL_LEVEL;
+        }
+    }
 }
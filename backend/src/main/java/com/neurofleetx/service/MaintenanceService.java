@@ -1,10 +1,13 @@
 package com.neurofleetx.service;
 
+import com.neurofleetx.event.MaintenanceChangedEvent;
+import com.neurofleetx.event.VehicleChangedEvent;
 import com.neurofleetx.model.Maintenance;
 import com.neurofleetx.model.Vehicle;
 import com.neurofleetx.repository.MaintenanceRepository;
 import com.neurofleetx.repository.VehicleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -18,6 +21,9 @@ public class MaintenanceService {
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Maintenance> getAllMaintenance() {
         return maintenanceRepository.findAll();
     }
@@ -45,11 +51,14 @@ public class MaintenanceService {
             maintenance.setPriority(Maintenance.Priority.HIGH);
         }
         
-        return maintenanceRepository.save(maintenance);
+        Maintenance saved = maintenanceRepository.save(maintenance);
+        eventPublisher.publishEvent(new MaintenanceChangedEvent(saved, null));
+        return saved;
     }
 
     public Maintenance updateMaintenance(Long id, Maintenance maintenanceDetails) {
         Maintenance maintenance = getMaintenanceById(id);
+        Maintenance.MaintenanceStatus previousStatus = maintenance.getStatus();
         maintenance.setStatus(maintenanceDetails.getStatus());
         maintenance.setPriority(maintenanceDetails.getPriority());
         maintenance.setScheduledDate(maintenanceDetails.getScheduledDate());
@@ -61,9 +70,13 @@ public class MaintenanceService {
             Vehicle vehicle = maintenance.getVehicle();
             vehicle.setHealthScore(100);
             vehicle.setLastMaintenanceDate(LocalDateTime.now());
-            vehicleRepository.save(vehicle);
+            Vehicle savedVehicle = vehicleRepository.save(vehicle);
+            eventPublisher.publishEvent(
+                new VehicleChangedEvent(savedVehicle, savedVehicle.getStatus(), VehicleChangedEvent.ChangeType.UPDATED));
         }
         
-        return maintenanceRepository.save(maintenance);
+        Maintenance saved = maintenanceRepository.save(maintenance);
+        eventPublisher.publishEvent(new MaintenanceChangedEvent(saved, previousStatus));
+        return saved;
     }
 }
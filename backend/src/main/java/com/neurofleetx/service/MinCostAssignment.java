@@ -0,0 +1,117 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.routing.IntDoubleMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment of rows to columns over a sparse cost matrix, solved
+ * with the Hungarian method in its shortest augmenting path form: each row is
+ * added with one Dijkstra search over reduced costs, and column potentials keep
+ * those costs non-negative. Every row also has a private "unassigned" column
+ * with its own cost, so a row is left out only when that is cheaper overall
+ * than taking a column from another row.
+ */
+final class MinCostAssignment {
+
+    private MinCostAssignment() {
+    }
+
+    /**
+     * Row {@code i} may take the columns {@code edgeColumns[rowStart[i]..rowStart[i + 1])}
+     * at the matching {@code edgeCosts}. Returns the column of each row, or -1 for
+     * rows left unassigned.
+     */
+    static int[] solve(int rows, int columns, int[] rowStart, int[] edgeColumns, double[] edgeCosts,
+                       double[] unassignedCosts) {
+        int allColumns = columns + rows;
+        double[] potentials = new double[allColumns];
+        int[] rowOfColumn = new int[allColumns];
+        int[] columnOfRow = new int[rows];
+        Arrays.fill(rowOfColumn, -1);
+        Arrays.fill(columnOfRow, -1);
+
+        double[] distance = new double[allColumns];
+        int[] previousRow = new int[allColumns];
+        boolean[] settled = new boolean[allColumns];
+        int[] settledColumns = new int[allColumns];
+        int[] touchedColumns = new int[allColumns];
+        IntDoubleMinHeap heap = new IntDoubleMinHeap(allColumns);
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+
+        for (int source = 0; source < rows; source++) {
+            int settledCount = 0;
+            int touchedCount = 0;
+            heap.clear();
+
+            // Reduced cost of the row's current column; zero for the source, which has none yet
+            double rowOffset = 0.0;
+            int row = source;
+            double rowDistance = 0.0;
+            int sink = -1;
+            while (true) {
+                for (int e = rowStart[row]; e <= rowStart[row + 1]; e++) {
+                    int column = e < rowStart[row + 1] ? edgeColumns[e] : columns + row;
+                    double cost = e < rowStart[row + 1] ? edgeCosts[e] : unassignedCosts[row];
+                    if (settled[column]) continue;
+                    double candidate = rowDistance + cost - potentials[column] - rowOffset;
+                    if (candidate < distance[column]) {
+                        if (distance[column] == Double.POSITIVE_INFINITY) {
+                            touchedColumns[touchedCount++] = column;
+                        }
+                        distance[column] = candidate;
+                        previousRow[column] = row;
+                        heap.insertOrDecrease(column, candidate);
+                    }
+                }
+                int column = heap.poll();
+                settled[column] = true;
+                settledColumns[settledCount++] = column;
+                if (rowOfColumn[column] < 0) {
+                    sink = column;
+                    break;
+                }
+                row = rowOfColumn[column];
+                rowDistance = distance[column];
+                rowOffset = costOf(row, column, columns, rowStart, edgeColumns, edgeCosts, unassignedCosts)
+                    - potentials[column];
+            }
+
+            double sinkDistance = distance[sink];
+            for (int s = 0; s < settledCount; s++) {
+                int column = settledColumns[s];
+                potentials[column] += distance[column] - sinkDistance;
+                settled[column] = false;
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                distance[touchedColumns[t]] = Double.POSITIVE_INFINITY;
+            }
+
+            // Shift columns along the augmenting path back to the source
+            int column = sink;
+            while (true) {
+                int pathRow = previousRow[column];
+                int next = columnOfRow[pathRow];
+                rowOfColumn[column] = pathRow;
+                columnOfRow[pathRow] = column;
+                if (pathRow == source) break;
+                column = next;
+            }
+        }
+
+        int[] result = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            result[row] = columnOfRow[row] < columns ? columnOfRow[row] : -1;
+        }
+        return result;
+    }
+
+    private static double costOf(int row, int column, int columns, int[] rowStart, int[] edgeColumns,
+                                 double[] edgeCosts, double[] unassignedCosts) {
+        if (column >= columns) return unassignedCosts[row];
+        for (int e = rowStart[row]; e < rowStart[row + 1]; e++) {
+            if (edgeColumns[e] == column) return edgeCosts[e];
+        }
+        throw new IllegalStateException("Row " + row + " is matched to column " + column + " without an edge");
+    }
+}
@@ -2,6 +2,7 @@ package com.neurofleetx.service;
 
 import com.neurofleetx.dto.BookingAvailabilityRequest;
 import com.neurofleetx.dto.BookingAvailabilityResponse;
+import com.neurofleetx.dto.VehicleRecommendationPage;
 import com.neurofleetx.dto.VehicleRecommendationResponse;
 import com.neurofleetx.dto.VehicleSearchRequest;
 import com.neurofleetx.model.*;
@@ -9,10 +10,11 @@ import com.neurofleetx.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -33,6 +35,12 @@ public class RecommendationEngine {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BookingCalendarIndex bookingCalendarIndex;
+
+    @Autowired
+    private FleetAttributeIndex fleetAttributeIndex;
+
     private static final double HOURLY_RATE_BASE = 25.0;
     private static final Map<Vehicle.VehicleType, Double> TYPE_MULTIPLIERS = Map.of(
         Vehicle.VehicleType.SEDAN, 1.0,
@@ -43,75 +51,141 @@ public class RecommendationEngine {
         Vehicle.VehicleType.BIKE, 0.5
     );
 
-    public List<VehicleRecommendationResponse> getRecommendedVehicles(String username, VehicleSearchRequest searchRequest) {
+    private static final class RankedVehicle {
+        final Vehicle vehicle;
+        final long vehicleId;
+        final double score;
+
+        RankedVehicle(Vehicle vehicle, long vehicleId, double score) {
+            this.vehicle = vehicle;
+            this.vehicleId = vehicleId;
+            this.score = score;
+        }
+    }
+
+    // Best first is highest score, then lowest id
+    private static final Comparator<RankedVehicle> RANKING = Comparator
+            .<RankedVehicle>comparingDouble(c -> c.score)
+            .thenComparing(c -> c.vehicleId, Comparator.reverseOrder());
+
+    /**
+     * One page of the available vehicles ranked for the customer. Vehicles are
+     * scored first and only the best {@code (page + 1) * size} are kept in a
+     * bounded heap; reasons and responses are built for the returned page alone.
+     * A cursor from a previous page takes precedence over {@code page} and
+     * continues right after that page's last vehicle.
+     */
+    public VehicleRecommendationPage getRecommendedVehicles(String username, VehicleSearchRequest searchRequest,
+                                                            int page, int size, String cursor) {
         User customer = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        if (page < 0 || size <= 0) {
+            throw new RuntimeException("Page must not be negative and size must be positive");
+        }
+        RankedVehicle after = cursor != null ? decodeCursor(cursor) : null;
 
         List<Vehicle> availableVehicles = getAvailableVehiclesForSearch(searchRequest);
+        long skipped = after != null ? 0 : (long) page * size;
+        if (skipped >= availableVehicles.size()) {
+            return new VehicleRecommendationPage(new ArrayList<>(), null);
+        }
+        int kept = (int) Math.min(skipped + size, availableVehicles.size());
         
         Optional<CustomerPreference> preferenceOpt = preferenceRepository.findByCustomer(customer);
-        
-        return availableVehicles.stream()
-                .map(vehicle -> buildRecommendation(vehicle, preferenceOpt, searchRequest))
-                .sorted(Comparator.comparing(VehicleRecommendationResponse::getRecommendationScore).reversed())
-                .collect(Collectors.toList());
-    }
+        Map<Long, Double> averageRatings = loadAverageRatings();
+
+        PriorityQueue<RankedVehicle> heap = new PriorityQueue<>(kept + 1, RANKING);
+        int remaining = 0;
+        for (Vehicle vehicle : availableVehicles) {
+            double score = calculateRecommendationScore(vehicle, preferenceOpt, averageRatings.get(vehicle.getId()));
+            RankedVehicle candidate = new RankedVehicle(vehicle, vehicle.getId(), score);
+            if (after != null && RANKING.compare(candidate, after) >= 0) continue;
+
+            remaining++;
+            if (heap.size() < kept) {
+                heap.add(candidate);
+            } else if (RANKING.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
 
-    private List<Vehicle> getAvailableVehiclesForSearch(VehicleSearchRequest searchRequest) {
-        List<Vehicle> vehicles = vehicleRepository.findAll().stream()
-                .filter(v -> v.getStatus() == Vehicle.VehicleStatus.AVAILABLE)
+        List<RankedVehicle> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll());
+        }
+        Collections.reverse(ranked);
+        List<RankedVehicle> pageVehicles = ranked.subList((int) Math.min(skipped, ranked.size()), ranked.size());
+
+        List<VehicleRecommendationResponse> recommendations = pageVehicles.stream()
+                .map(c -> buildRecommendation(c.vehicle, c.score, preferenceOpt, averageRatings.get(c.vehicleId)))
                 .collect(Collectors.toList());
+        String nextCursor = remaining > kept && !pageVehicles.isEmpty()
+                ? encodeCursor(pageVehicles.get(pageVehicles.size() - 1))
+                : null;
+        return new VehicleRecommendationPage(recommendations, nextCursor);
+    }
 
-        if (searchRequest.getVehicleType() != null && !searchRequest.getVehicleType().equals("ALL")) {
-            vehicles = vehicles.stream()
-                    .filter(v -> v.getType().name().equals(searchRequest.getVehicleType()))
-                    .collect(Collectors.toList());
-        }
+    private static String encodeCursor(RankedVehicle last) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.score + ":" + last.vehicleId).getBytes(StandardCharsets.UTF_8));
+    }
 
-        if (searchRequest.getIsElectric() != null) {
-            vehicles = vehicles.stream()
-                    .filter(v -> v.getIsElectric().equals(searchRequest.getIsElectric()))
-                    .collect(Collectors.toList());
+    private static RankedVehicle decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return new RankedVehicle(null, Long.parseLong(parts[1]), Double.parseDouble(parts[0]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor");
         }
+    }
 
-        if (searchRequest.getMinCapacity() != null) {
-            vehicles = vehicles.stream()
-                    .filter(v -> v.getCapacity() >= searchRequest.getMinCapacity())
-                    .collect(Collectors.toList());
+    private List<Vehicle> getAvailableVehiclesForSearch(VehicleSearchRequest searchRequest) {
+        Vehicle.VehicleType type = null;
+        if (searchRequest.getVehicleType() != null && !searchRequest.getVehicleType().equals("ALL")) {
+            type = Arrays.stream(Vehicle.VehicleType.values())
+                    .filter(t -> t.name().equals(searchRequest.getVehicleType()))
+                    .findFirst()
+                    .orElse(null);
+            if (type == null) {
+                return new ArrayList<>();
+            }
         }
 
-        if (searchRequest.getMaxCapacity() != null) {
-            vehicles = vehicles.stream()
-                    .filter(v -> v.getCapacity() <= searchRequest.getMaxCapacity())
-                    .collect(Collectors.toList());
-        }
+        List<Long> vehicleIds = fleetAttributeIndex.findAvailable(type, searchRequest.getIsElectric(),
+                searchRequest.getMinCapacity(), searchRequest.getMaxCapacity());
 
         if (searchRequest.getStartTime() != null && searchRequest.getEndTime() != null) {
-            vehicles = filterByAvailability(vehicles, searchRequest.getStartTime(), searchRequest.getEndTime());
+            vehicleIds = filterByAvailability(vehicleIds, searchRequest.getStartTime(), searchRequest.getEndTime());
         }
 
-        return vehicles;
+        // The index follows committed changes only, so the status is checked again as loaded
+        return vehicleRepository.findAllById(vehicleIds).stream()
+                .filter(v -> v.getStatus() == Vehicle.VehicleStatus.AVAILABLE)
+                .collect(Collectors.toList());
     }
 
-    private List<Vehicle> filterByAvailability(List<Vehicle> vehicles, LocalDateTime startTime, LocalDateTime endTime) {
-        List<Booking> overlappingBookings = bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() != Booking.BookingStatus.CANCELLED 
-                        && b.getStatus() != Booking.BookingStatus.COMPLETED)
-                .filter(b -> !(b.getEndTime().isBefore(startTime) || b.getStartTime().isAfter(endTime)))
+    private List<Long> filterByAvailability(List<Long> vehicleIds, LocalDateTime startTime, LocalDateTime endTime) {
+        return vehicleIds.stream()
+                .filter(id -> !bookingCalendarIndex.isBooked(id, startTime, endTime))
                 .collect(Collectors.toList());
+    }
 
-        Set<Long> bookedVehicleIds = overlappingBookings.stream()
-                .map(b -> b.getVehicle().getId())
-                .collect(Collectors.toSet());
-
-        return vehicles.stream()
-                .filter(v -> !bookedVehicleIds.contains(v.getId()))
-                .collect(Collectors.toList());
+    // Average rating of every rated vehicle, read from the summary table in one query
+    private Map<Long, Double> loadAverageRatings() {
+        Map<Long, Double> averageRatings = new HashMap<>();
+        for (Object[] row : ratingRepository.findRatingSummaries()) {
+            long count = ((Number) row[1]).longValue();
+            if (count > 0) {
+                averageRatings.put(((Number) row[0]).longValue(), ((Number) row[2]).doubleValue() / count);
+            }
+        }
+        return averageRatings;
     }
 
-    private VehicleRecommendationResponse buildRecommendation(Vehicle vehicle, Optional<CustomerPreference> preferenceOpt, VehicleSearchRequest searchRequest) {
-        double score = calculateRecommendationScore(vehicle, preferenceOpt);
-        String reason = generateRecommendationReason(vehicle, preferenceOpt);
+    private VehicleRecommendationResponse buildRecommendation(Vehicle vehicle, double score,
+                                                              Optional<CustomerPreference> preferenceOpt, Double avgRating) {
+        String reason = generateRecommendationReason(vehicle, preferenceOpt, avgRating);
         boolean isRecommended = score >= 70.0;
         double pricePerHour = calculatePricePerHour(vehicle);
 
@@ -125,7 +199,7 @@ public class RecommendationEngine {
         );
     }
 
-    private double calculateRecommendationScore(Vehicle vehicle, Optional<CustomerPreference> preferenceOpt) {
+    private double calculateRecommendationScore(Vehicle vehicle, Optional<CustomerPreference> preferenceOpt, Double avgRating) {
         double score = 50.0;
 
         if (preferenceOpt.isPresent()) {
@@ -144,7 +218,6 @@ public class RecommendationEngine {
             }
         }
 
-        Double avgRating = ratingRepository.findAverageRatingByVehicle(vehicle);
         if (avgRating != null) {
             score += (avgRating / 5.0) * 15.0;
         }
@@ -153,14 +226,14 @@ public class RecommendationEngine {
             score += (vehicle.getHealthScore() / 100.0) * 10.0;
         }
 
-        if (vehicle.getIsElectric()) {
+        if (Boolean.TRUE.equals(vehicle.getIsElectric())) {
             score += 5.0;
         }
 
         return Math.min(Math.round(score * 10.0) / 10.0, 100.0);
     }
 
-    private String generateRecommendationReason(Vehicle vehicle, Optional<CustomerPreference> preferenceOpt) {
+    private String generateRecommendationReason(Vehicle vehicle, Optional<CustomerPreference> preferenceOpt, Double avgRating) {
         List<String> reasons = new ArrayList<>();
 
         if (preferenceOpt.isPresent()) {
@@ -179,7 +252,6 @@ public class RecommendationEngine {
             }
         }
 
-        Double avgRating = ratingRepository.findAverageRatingByVehicle(vehicle);
         if (avgRating != null && avgRating >= 4.0) {
             reasons.add(String.format("Highly rated (%.1f/5.0)", avgRating));
         }
@@ -188,7 +260,7 @@ public class RecommendationEngine {
             reasons.add("Excellent condition");
         }
 
-        if (vehicle.getIsElectric()) {
+        if (Boolean.TRUE.equals(vehicle.getIsElectric())) {
             reasons.add("Eco-friendly electric vehicle");
         }
 
@@ -199,7 +271,7 @@ public class RecommendationEngine {
         double multiplier = TYPE_MULTIPLIERS.getOrDefault(vehicle.getType(), 1.0);
         double price = HOURLY_RATE_BASE * multiplier;
         
-        if (vehicle.getIsElectric()) {
+        if (Boolean.TRUE.equals(vehicle.getIsElectric())) {
             price *= 1.1;
         }
         
@@ -227,7 +299,7 @@ public class RecommendationEngine {
                 .orElse(null);
 
         long electricCount = completedBookings.stream()
-                .filter(b -> b.getVehicle().getIsElectric())
+                .filter(b -> Boolean.TRUE.equals(b.getVehicle().getIsElectric()))
                 .count();
         boolean preferElectric = electricCount > (completedBookings.size() / 2.0);
 
@@ -255,8 +327,9 @@ public class RecommendationEngine {
         preferenceRepository.save(preference);
     }
 
-    public List<VehicleRecommendationResponse> searchVehicles(String username, VehicleSearchRequest searchRequest) {
-        return getRecommendedVehicles(username, searchRequest);
+    public VehicleRecommendationPage searchVehicles(String username, VehicleSearchRequest searchRequest,
+                                                    int page, int size, String cursor) {
+        return getRecommendedVehicles(username, searchRequest, page, size, cursor);
     }
 
     public List<BookingAvailabilityResponse> checkVehicleAvailability(BookingAvailabilityRequest request) {
@@ -267,21 +340,21 @@ public class RecommendationEngine {
         LocalDate endDate = request.getEndDate();
         double pricePerHour = calculatePricePerHour(vehicle);
 
-        List<Booking> vehicleBookings = bookingRepository.findByVehicle(vehicle).stream()
-                .filter(b -> b.getStatus() != Booking.BookingStatus.CANCELLED 
-                        && b.getStatus() != Booking.BookingStatus.COMPLETED)
-                .collect(Collectors.toList());
+        LocalDateTime from = startDate.atStartOfDay();
+        int hours = (int) Math.max(0, ChronoUnit.DAYS.between(startDate, endDate) + 1) * 24;
+        long[] occupied = bookingCalendarIndex.occupiedHours(vehicle.getId(), from, hours);
 
         List<BookingAvailabilityResponse.TimeSlot> availableSlots = new ArrayList<>();
         List<BookingAvailabilityResponse.TimeSlot> bookedSlots = new ArrayList<>();
 
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            for (int hour = 0; hour < 24; hour++) {
-                LocalDateTime slotStart = LocalDateTime.of(date, LocalTime.of(hour, 0));
+        for (int word = 0; word < occupied.length; word++) {
+            long bits = occupied[word];
+            int wordEnd = Math.min(hours, (word + 1) * 64);
+            for (int hour = word * 64; hour < wordEnd; hour++) {
+                LocalDateTime slotStart = from.plusHours(hour);
                 LocalDateTime slotEnd = slotStart.plusHours(1);
 
-                boolean isAvailable = vehicleBookings.stream()
-                        .noneMatch(b -> !(b.getEndTime().isBefore(slotStart) || b.getStartTime().isAfter(slotEnd)));
+                boolean isAvailable = (bits & (1L << (hour & 63))) == 0;
 
                 BookingAvailabilityResponse.TimeSlot slot = new BookingAvailabilityResponse.TimeSlot(
                     slotStart,
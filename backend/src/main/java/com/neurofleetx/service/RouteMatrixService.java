@@ -0,0 +1,205 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.RouteMatrixPoint;
+import com.neurofleetx.dto.RouteMatrixRequest;
+import com.neurofleetx.dto.RouteMatrixResponse;
+import com.neurofleetx.model.Route;
+import com.neurofleetx.routing.PathSearch;
+import com.neurofleetx.routing.RoadGraph;
+import com.neurofleetx.routing.TrafficProfiles;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Travel time and distance matrices between many sources and destinations. Each
+ * source runs one search that stops once every destination is settled, and the
+ * rows are computed in parallel on the routing fork-join pool. Times and
+ * distances follow the same rules as {@link RouteOptimizationEngine}: while
+ * routing is time-dependent, edges are timed with the traffic profiles from the
+ * request's departure and FASTEST rows search on those times, access legs to and
+ * from the road network are included, and unreachable pairs fall back to the
+ * straight-line distance.
+ */
+@Service
+@Slf4j
+public class RouteMatrixService {
+
+    private static final double ACCESS_SPEED_KM_PER_MINUTE = 0.5;
+    private static final int ROW_SPLIT_THRESHOLD = 4;
+
+    @Autowired
+    private RouteOptimizationEngine optimizationEngine;
+
+    @Autowired
+    private ForkJoinPool routingForkJoinPool;
+
+    @Value("${routing.matrix.max-cells:250000}")
+    private long maxCells;
+
+    private final ThreadLocal<PathSearch> searches = new ThreadLocal<>();
+
+    public RouteMatrixResponse computeMatrix(RouteMatrixRequest request) {
+        List<RouteMatrixPoint> sources = request.getSources();
+        List<RouteMatrixPoint> destinations = request.getDestinations();
+        if (sources == null || sources.isEmpty() || destinations == null || destinations.isEmpty()) {
+            throw new RuntimeException("Sources and destinations are required for a route matrix");
+        }
+        if ((long) sources.size() * destinations.size() > maxCells) {
+            throw new RuntimeException("Route matrix of " + sources.size() + " x " + destinations.size()
+                + " exceeds the limit of " + maxCells + " cells");
+        }
+        validate(sources);
+        validate(destinations);
+        Route.OptimizationType type = request.getOptimizationType() != null
+            ? request.getOptimizationType()
+            : Route.OptimizationType.FASTEST;
+
+        long started = System.currentTimeMillis();
+        RoadGraph graph = optimizationEngine.getGraph();
+        TrafficProfiles profiles = optimizationEngine.profilesFor(graph);
+        double departure = TrafficProfileService.minuteOfDay(
+            request.getDepartureTime() != null ? request.getDepartureTime() : LocalDateTime.now());
+
+        int[] targetNodes = new int[destinations.size()];
+        double[] targetAccess = new double[destinations.size()];
+        for (int j = 0; j < destinations.size(); j++) {
+            RouteMatrixPoint point = destinations.get(j);
+            targetNodes[j] = graph.nearestNode(point.getLatitude(), point.getLongitude());
+            targetAccess[j] = RoadGraph.haversineKm(graph.latitude(targetNodes[j]), graph.longitude(targetNodes[j]),
+                point.getLatitude(), point.getLongitude());
+        }
+
+        float[][] times = new float[sources.size()][];
+        float[][] distances = new float[sources.size()][];
+        routingForkJoinPool.invoke(new RowTask(graph, type, profiles, departure, sources, destinations,
+            targetNodes, targetAccess, times, distances, 0, sources.size()));
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Computed {}x{} route matrix in {} ms", sources.size(), destinations.size(), elapsed);
+        return new RouteMatrixResponse(type, sources.size(), destinations.size(), times, distances, elapsed);
+    }
+
+    private class RowTask extends RecursiveAction {
+        private final RoadGraph graph;
+        private final Route.OptimizationType type;
+        private final TrafficProfiles profiles;
+        private final double departure;
+        private final List<RouteMatrixPoint> sources;
+        private final List<RouteMatrixPoint> destinations;
+        private final int[] targetNodes;
+        private final double[] targetAccess;
+        private final float[][] times;
+        private final float[][] distances;
+        private final int from;
+        private final int to;
+
+        RowTask(RoadGraph graph, Route.OptimizationType type, TrafficProfiles profiles, double departure,
+                List<RouteMatrixPoint> sources, List<RouteMatrixPoint> destinations,
+                int[] targetNodes, double[] targetAccess,
+                float[][] times, float[][] distances, int from, int to) {
+            this.graph = graph;
+            this.type = type;
+            this.profiles = profiles;
+            this.departure = departure;
+            this.sources = sources;
+            this.destinations = destinations;
+            this.targetNodes = targetNodes;
+            this.targetAccess = targetAccess;
+            this.times = times;
+            this.distances = distances;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROW_SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    computeRow(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new RowTask(graph, type, profiles, departure, sources, destinations, targetNodes, targetAccess,
+                    times, distances, from, middle),
+                new RowTask(graph, type, profiles, departure, sources, destinations, targetNodes, targetAccess,
+                    times, distances, middle, to)
+            );
+        }
+
+        private void computeRow(int row) {
+            RouteMatrixPoint origin = sources.get(row);
+            int sourceNode = graph.nearestNode(origin.getLatitude(), origin.getLongitude());
+            double sourceAccess = RoadGraph.haversineKm(origin.getLatitude(), origin.getLongitude(),
+                graph.latitude(sourceNode), graph.longitude(sourceNode));
+
+            // Road time starts once the access leg to the first node is driven
+            double roadDeparture = departure + sourceAccess / ACCESS_SPEED_KM_PER_MINUTE;
+            PathSearch search = searchFor(graph);
+            if (type == Route.OptimizationType.FASTEST && profiles != null) {
+                search.fastestPathTree(sourceNode, targetNodes, profiles, roadDeparture);
+            } else {
+                search.shortestPathTree(sourceNode, targetNodes, type);
+            }
+
+            float[] timeRow = new float[targetNodes.length];
+            float[] distanceRow = new float[targetNodes.length];
+            int[] path = new int[16];
+            for (int j = 0; j < targetNodes.length; j++) {
+                double distance;
+                double time;
+                if (search.isSettled(targetNodes[j])) {
+                    int length = 0;
+                    for (int edge = search.parentEdge(targetNodes[j]); edge >= 0; edge = search.parentEdge(graph.source(edge))) {
+                        if (length == path.length) path = Arrays.copyOf(path, length * 2);
+                        path[length++] = edge;
+                    }
+                    distance = 0;
+                    time = 0;
+                    for (int e = length - 1; e >= 0; e--) {
+                        distance += graph.distance(path[e]);
+                        time += profiles != null ? profiles.travelTime(path[e], roadDeparture + time) : graph.travelTime(path[e]);
+                    }
+                    double access = sourceAccess + targetAccess[j];
+                    distance += access;
+                    time += access / ACCESS_SPEED_KM_PER_MINUTE;
+                } else {
+                    RouteMatrixPoint destination = destinations.get(j);
+                    distance = RoadGraph.haversineKm(origin.getLatitude(), origin.getLongitude(),
+                        destination.getLatitude(), destination.getLongitude());
+                    time = distance / ACCESS_SPEED_KM_PER_MINUTE;
+                }
+                timeRow[j] = (float) time;
+                distanceRow[j] = (float) distance;
+            }
+            times[row] = timeRow;
+            distances[row] = distanceRow;
+        }
+    }
+
+    private PathSearch searchFor(RoadGraph graph) {
+        PathSearch search = searches.get();
+        if (search == null || search.graph() != graph) {
+            search = new PathSearch(graph);
+            searches.set(search);
+        }
+        return search;
+    }
+
+    private void validate(List<RouteMatrixPoint> points) {
+        for (RouteMatrixPoint point : points) {
+            if (point == null || point.getLatitude() == null || point.getLongitude() == null) {
+                throw new RuntimeException("Every matrix point needs a latitude and longitude");
+            }
+        }
+    }
+}
@@ -1,131 +1,292 @@
 package com.neurofleetx.service;
 
 import com.neurofleetx.model.Route;
+import com.neurofleetx.routing.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Service
 @Slf4j
 public class RouteOptimizationEngine {
     
-    private static class Node implements Comparable<Node> {
-        String location;
-        double cost;
-        double distance;
-        List<String> path;
+    @Autowired
+    private RoadGraphLoader roadGraphLoader;
+    
+    @Autowired
+    private ContractionHierarchyManager hierarchyManager;
+    
+    @Autowired
+    private ExecutorService routingExecutor;
+    
+    @Autowired
+    private TrafficProfileService trafficProfileService;
+    
+    @Value("${routing.search-mode:ASTAR}")
+    private SearchMode searchMode;
+    
+    @Value("${routing.parallel-search:true}")
+    private boolean parallelSearch;
+    
+    @Value("${routing.traffic.time-dependent:true}")
+    private boolean timeDependent;
+    
+    @Value("${routing.alternatives.k:3}")
+    private int alternativeCount;
+    
+    @Value("${routing.alternatives.max-similarity:0.6}")
+    private double maxSimilarity;
+    
+    private static final List<Route.OptimizationType> ROUTE_TYPES = List.of(
+        Route.OptimizationType.FASTEST,
+        Route.OptimizationType.ENERGY_EFFICIENT,
+        Route.OptimizationType.BALANCED
+    );
+    
+    private final ThreadLocal<PathSearch> searches = new ThreadLocal<>();
+    
+    private final ThreadLocal<ContractionHierarchyQuery> hierarchyQueries = new ThreadLocal<>();
+    
+    private final ThreadLocal<KShortestPaths> kShortestSearches = new ThreadLocal<>();
+    
+    public List<Route> generateOptimizedRoutes(
+            String startLocation, String endLocation,
+            Double startLat, Double startLon,
+            Double endLat, Double endLon,
+            Long vehicleId) {
         
-        Node(String location, double cost, double distance, List<String> path) {
-            this.location = location;
-            this.cost = cost;
-            this.distance = distance;
-            this.path = new ArrayList<>(path);
+        if (startLat == null || startLon == null || endLat == null || endLon == null) {
+            throw new RuntimeException("Start and end coordinates are required for route optimization");
         }
         
-        @Override
-        public int compareTo(Node other) {
-            return Double.compare(this.cost, other.cost);
+        RoadGraph graph = roadGraphLoader.getGraph();
+        int source = graph.nearestNode(startLat, startLon);
+        int target = graph.nearestNode(endLat, endLon);
+        double departure = TrafficProfileService.minuteOfDay(LocalDateTime.now());
+        
+        if (!parallelSearch || Runtime.getRuntime().availableProcessors() < 2) {
+            return searchAllTypes(graph, source, target, departure, startLocation, endLocation,
+                startLat, startLon, endLat, endLon, vehicleId);
         }
+        
+        // The searches are independent, so all but the last run on the pool while the caller runs the last
+        List<Future<Route>> futures = new ArrayList<>();
+        for (int i = 0; i < ROUTE_TYPES.size() - 1; i++) {
+            Route.OptimizationType type = ROUTE_TYPES.get(i);
+            futures.add(routingExecutor.submit(() -> findOptimizedRoute(
+                graph, source, target, departure, startLocation, endLocation,
+                startLat, startLon, endLat, endLon, vehicleId, type
+            )));
+        }
+        Route last = findOptimizedRoute(
+            graph, source, target, departure, startLocation, endLocation,
+            startLat, startLon, endLat, endLon, vehicleId, ROUTE_TYPES.get(ROUTE_TYPES.size() - 1)
+        );
+        
+        List<Route> routes = new ArrayList<>();
+        for (Future<Route> future : futures) {
+            routes.add(await(future));
+        }
+        routes.add(last);
+        return routes;
     }
     
+    /**
+     * Generates the routes of one request on the calling thread against the given
+     * graph. Used by batch optimization, which parallelizes across requests and
+     * keeps one graph snapshot for the whole batch.
+     */
     public List<Route> generateOptimizedRoutes(
+            RoadGraph graph,
             String startLocation, String endLocation,
             Double startLat, Double startLon,
             Double endLat, Double endLon,
             Long vehicleId) {
         
-        List<Route> routes = new ArrayList<>();
-        
-        Map<String, List<Edge>> graph = buildRouteGraph(startLat, startLon, endLat, endLon);
+        if (startLat == null || startLon == null || endLat == null || endLon == null) {
+            throw new RuntimeException("Start and end coordinates are required for route optimization");
+        }
         
-        Route fastestRoute = dijkstraOptimization(
-            graph, startLocation, endLocation, 
-            startLat, startLon, endLat, endLon, 
-            vehicleId, Route.OptimizationType.FASTEST
-        );
-        routes.add(fastestRoute);
+        return searchAllTypes(graph, graph.nearestNode(startLat, startLon), graph.nearestNode(endLat, endLon),
+            TrafficProfileService.minuteOfDay(LocalDateTime.now()),
+            startLocation, endLocation, startLat, startLon, endLat, endLon, vehicleId);
+    }
+    
+    /**
+     * Generates up to {@code routing.alternatives.k} loopless routes of one
+     * optimization type, cheapest first, skipping routes that mostly overlap a
+     * cheaper one.
+     */
+    public List<Route> generateAlternativeRoutes(
+            RoadGraph graph,
+            String startLocation, String endLocation,
+            Double startLat, Double startLon,
+            Double endLat, Double endLon,
+            Long vehicleId,
+            Route.OptimizationType type) {
         
-        Route energyRoute = dijkstraOptimization(
-            graph, startLocation, endLocation, 
-            startLat, startLon, endLat, endLon, 
-            vehicleId, Route.OptimizationType.ENERGY_EFFICIENT
-        );
-        routes.add(energyRoute);
+        if (startLat == null || startLon == null || endLat == null || endLon == null) {
+            throw new RuntimeException("Start and end coordinates are required for route optimization");
+        }
         
-        Route balancedRoute = dijkstraOptimization(
-            graph, startLocation, endLocation, 
-            startLat, startLon, endLat, endLon, 
-            vehicleId, Route.OptimizationType.BALANCED
-        );
-        routes.add(balancedRoute);
+        int source = graph.nearestNode(startLat, startLon);
+        int target = graph.nearestNode(endLat, endLon);
+        List<int[]> paths = kShortestFor(graph).find(source, target, type, alternativeCount, maxSimilarity);
+        if (paths.isEmpty()) {
+            return List.of(createDirectRoute(startLocation, endLocation, startLat, startLon, endLat, endLon, vehicleId, type));
+        }
         
+        double departure = TrafficProfileService.minuteOfDay(LocalDateTime.now());
+        List<Route> routes = new ArrayList<>();
+        for (int[] path : paths) {
+            routes.add(createRouteFromPath(
+                graph, source, path, departure,
+                startLat, startLon, endLat, endLon,
+                vehicleId, type, startLocation, endLocation
+            ));
+        }
         return routes;
     }
     
-    private Route dijkstraOptimization(
-            Map<String, List<Edge>> graph,
+    public RoadGraph getGraph() {
+        return roadGraphLoader.getGraph();
+    }
+    
+    private List<Route> searchAllTypes(
+            RoadGraph graph, int source, int target, double departure,
+            String startLocation, String endLocation,
+            Double startLat, Double startLon,
+            Double endLat, Double endLon,
+            Long vehicleId) {
+        List<Route> routes = new ArrayList<>();
+        for (Route.OptimizationType type : ROUTE_TYPES) {
+            routes.add(findOptimizedRoute(
+                graph, source, target, departure, startLocation, endLocation,
+                startLat, startLon, endLat, endLon, vehicleId, type
+            ));
+        }
+        return routes;
+    }
+    
+    private Route await(Future<Route> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Route optimization interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                ? (RuntimeException) e.getCause()
+                : new RuntimeException(e.getCause());
+        }
+    }
+    
+    public String getAlgorithmName() {
+        return switch (searchMode) {
+            case DIJKSTRA -> "Dijkstra";
+            case ASTAR -> "A*";
+            case CH -> "Contraction Hierarchies";
+        };
+    }
+    
+    private Route findOptimizedRoute(
+            RoadGraph graph, int source, int target, double departure,
             String start, String end,
             Double startLat, Double startLon,
             Double endLat, Double endLon,
             Long vehicleId,
             Route.OptimizationType type) {
         
-        PriorityQueue<Node> queue = new PriorityQueue<>();
-        Map<String, Double> distances = new HashMap<>();
-        Set<String> visited = new HashSet<>();
-        
-        queue.add(new Node(start, 0, 0, Arrays.asList(start)));
-        distances.put(start, 0.0);
-        
-        while (!queue.isEmpty()) {
-            Node current = queue.poll();
-            
-            if (visited.contains(current.location)) continue;
-            visited.add(current.location);
-            
-            if (current.location.equals(end)) {
-                return createRouteFromPath(
-                    current.path, current.distance, current.cost,
-                    startLat, startLon, endLat, endLon,
-                    vehicleId, type, start, end
-                );
-            }
-            
-            List<Edge> neighbors = graph.getOrDefault(current.location, new ArrayList<>());
-            for (Edge edge : neighbors) {
-                if (visited.contains(edge.destination)) continue;
-                
-                double edgeCost = calculateEdgeCost(edge, type);
-                double newCost = current.cost + edgeCost;
-                double newDistance = current.distance + edge.distance;
-                
-                if (newCost < distances.getOrDefault(edge.destination, Double.MAX_VALUE)) {
-                    distances.put(edge.destination, newCost);
-                    List<String> newPath = new ArrayList<>(current.path);
-                    newPath.add(edge.destination);
-                    queue.add(new Node(edge.destination, newCost, newDistance, newPath));
-                }
+        int[] path = shortestPath(graph, source, target, type, departure);
+        if (path == null) {
+            return createDirectRoute(start, end, startLat, startLon, endLat, endLon, vehicleId, type);
+        }
+        return createRouteFromPath(
+            graph, source, path, departure,
+            startLat, startLon, endLat, endLon,
+            vehicleId, type, start, end
+        );
+    }
+    
+    private int[] shortestPath(RoadGraph graph, int source, int target, Route.OptimizationType type, double departure) {
+        // Travel times depend on the time of day, which a static hierarchy cannot capture
+        TrafficProfiles profiles = profilesFor(graph);
+        if (type == Route.OptimizationType.FASTEST && profiles != null) {
+            return searchFor(graph).fastestPath(source, target, profiles, departure, searchMode != SearchMode.DIJKSTRA);
+        }
+        if (searchMode == SearchMode.CH) {
+            ContractionHierarchy hierarchy = hierarchyManager.getHierarchy(type, graph);
+            if (hierarchy != null) {
+                return hierarchyQueryFor(graph).shortestPath(hierarchy, source, target);
             }
         }
-        
-        return createDirectRoute(start, end, startLat, startLon, endLat, endLon, vehicleId, type);
+        return searchFor(graph).shortestPath(source, target, type, searchMode != SearchMode.DIJKSTRA);
     }
     
-    private double calculateEdgeCost(Edge edge, Route.OptimizationType type) {
-        return switch (type) {
-            case FASTEST -> edge.time * (1 + edge.trafficFactor);
-            case ENERGY_EFFICIENT -> edge.distance * edge.energyFactor;
-            case BALANCED -> (edge.time * 0.5 + edge.distance * 0.3 + edge.energyFactor * 20);
-            case SHORTEST -> edge.distance;
-        };
+    private ContractionHierarchyQuery hierarchyQueryFor(RoadGraph graph) {
+        ContractionHierarchyQuery query = hierarchyQueries.get();
+        if (query == null || query.nodeCount() != graph.nodeCount()) {
+            query = new ContractionHierarchyQuery(graph.nodeCount());
+            hierarchyQueries.set(query);
+        }
+        return query;
+    }
+    
+    TrafficProfiles profilesFor(RoadGraph graph) {
+        return timeDependent ? trafficProfileService.getProfiles(graph) : null;
+    }
+    
+    private KShortestPaths kShortestFor(RoadGraph graph) {
+        KShortestPaths search = kShortestSearches.get();
+        if (search == null || search.graph() != graph) {
+            search = new KShortestPaths(graph);
+            kShortestSearches.set(search);
+        }
+        return search;
+    }
+    
+    private PathSearch searchFor(RoadGraph graph) {
+        PathSearch search = searches.get();
+        if (search == null || search.graph() != graph) {
+            search = new PathSearch(graph);
+            searches.set(search);
+        }
+        return search;
     }
     
     private Route createRouteFromPath(
-            List<String> path, double distance, double cost,
+            RoadGraph graph, int first, int[] path, double departure,
             Double startLat, Double startLon, Double endLat, Double endLon,
             Long vehicleId, Route.OptimizationType type,
             String start, String end) {
         
+        List<String> names = new ArrayList<>();
+        names.add(start);
+        names.add(graph.name(first));
+        
+        TrafficProfiles profiles = profilesFor(graph);
+        double startAccess = calculateHaversineDistance(startLat, startLon, graph.latitude(first), graph.longitude(first));
+        double distance = startAccess;
+        double time = startAccess / 0.5;
+        int last = first;
+        for (int edge : path) {
+            distance += graph.distance(edge);
+            time += profiles != null ? profiles.travelTime(edge, departure + time) : graph.travelTime(edge);
+            last = graph.target(edge);
+            names.add(graph.name(last));
+        }
+        names.add(end);
+        
+        double endAccess = calculateHaversineDistance(graph.latitude(last), graph.longitude(last), endLat, endLon);
+        distance += endAccess;
+        time += endAccess / 0.5;
+        
         Route route = new Route();
         route.setVehicleId(vehicleId);
         route.setStartLocation(start);
@@ -135,12 +296,12 @@ public class RouteOptimizationEngine {
         route.setEndLatitude(endLat);
         route.setEndLongitude(endLon);
         route.setDistanceKm(distance);
-        route.setEtaMinutes((int) Math.ceil(cost));
+        route.setEtaMinutes((int) Math.ceil(time));
         route.setOptimizationType(type);
-        route.setOptimizedPath(String.join(" -> ", path));
+        route.setOptimizedPath(String.join(" -> ", names));
         route.setStatus(Route.RouteStatus.PENDING);
         
-        route.setTrafficLevel(estimateTrafficLevel(cost, distance));
+        route.setTrafficLevel(estimateTrafficLevel(time, distance));
         route.setEnergyCost(calculateEnergyCost(distance, type));
         
         return route;
@@ -175,53 +336,6 @@ public class RouteOptimizationEngine {
         return route;
     }
     
-    private Map<String, List<Edge>> buildRouteGraph(
-            Double startLat, Double startLon, 
-            Double endLat, Double endLon) {
-        
-        Map<String, List<Edge>> graph = new HashMap<>();
-        
-        Random random = new Random(42);
-        List<String> waypoints = generateWaypoints(startLat, startLon, endLat, endLon);
-        
-        for (int i = 0; i < waypoints.size(); i++) {
-            graph.put(waypoints.get(i), new ArrayList<>());
-            
-            for (int j = 0; j < waypoints.size(); j++) {
-                if (i != j && random.nextDouble() > 0.5) {
-                    double distance = 2 + random.nextDouble() * 8;
-                    double time = distance / (0.4 + random.nextDouble() * 0.3);
-                    double trafficFactor = random.nextDouble() * 0.3;
-                    double energyFactor = 0.8 + random.nextDouble() * 0.4;
-                    
-                    graph.get(waypoints.get(i)).add(
-                        new Edge(waypoints.get(j), distance, time, trafficFactor, energyFactor)
-                    );
-                }
-            }
-        }
-        
-        return graph;
-    }
-    
-    private List<String> generateWaypoints(Double startLat, Double startLon, Double endLat, Double endLon) {
-        List<String> waypoints = new ArrayList<>();
-        waypoints.add("Start");
-        
-        waypoints.add("Highway-1");
-        waypoints.add("Junction-A");
-        waypoints.add("Downtown");
-        waypoints.add("Bridge-North");
-        waypoints.add("Industrial-Zone");
-        waypoints.add("Park-Avenue");
-        waypoints.add("Main-Street");
-        waypoints.add("Station-Central");
-        
-        waypoints.add("End");
-        
-        return waypoints;
-    }
-    
     private Route.TrafficLevel estimateTrafficLevel(double time, double distance) {
         double speed = distance / (time / 60.0);
         if (speed > 50) return Route.TrafficLevel.LOW;
@@ -241,29 +355,6 @@ public class RouteOptimizationEngine {
     }
     
     public double calculateHaversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371;
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
-    
-    private static class Edge {
-        String destination;
-        double distance;
-        double time;
-        double trafficFactor;
-        double energyFactor;
-        
-        Edge(String destination, double distance, double time, double trafficFactor, double energyFactor) {
-            this.destination = destination;
-            this.distance = distance;
-            this.time = time;
-            this.trafficFactor = trafficFactor;
-            this.energyFactor = energyFactor;
-        }
+        return RoadGraph.haversineKm(lat1, lon1, lat2, lon2);
     }
 }
@@ -0,0 +1,158 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.RouteOptimizationRequest;
+import com.neurofleetx.model.Route;
+import com.neurofleetx.model.Vehicle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of optimized routes. Keys snap origin and destination
+ * to a grid cell and add the vehicle class and the traffic window the request
+ * falls in; an entry expires when its traffic window ends. Only the computed
+ * route attributes are kept, so a hit can be replayed for another vehicle and
+ * other location names without running the engine or the ETA predictor.
+ */
+@Component
+public class RouteResultCache {
+
+    @Value("${routing.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${routing.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${routing.cache.cell-degrees:0.001}")
+    private double cellDegrees;
+
+    @Value("${routing.cache.traffic-window-minutes:15}")
+    private long trafficWindowMinutes;
+
+    private static final class CachedRoute {
+        final Route.OptimizationType type;
+        final double distanceKm;
+        final int etaMinutes;
+        final Double energyCost;
+        final Route.TrafficLevel trafficLevel;
+        // Path between the start and end names, which belong to the request
+        final String innerPath;
+
+        CachedRoute(Route route) {
+            this.type = route.getOptimizationType();
+            this.distanceKm = route.getDistanceKm();
+            this.etaMinutes = route.getEtaMinutes();
+            this.energyCost = route.getEnergyCost();
+            this.trafficLevel = route.getTrafficLevel();
+            this.innerPath = innerPath(route);
+        }
+    }
+
+    private static final class Entry {
+        final List<CachedRoute> routes;
+        final long expiresAt;
+
+        Entry(List<CachedRoute> routes, long expiresAt) {
+            this.routes = routes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String key(RouteOptimizationRequest request, Vehicle vehicle, long now) {
+        String vehicleClass = vehicle == null
+            ? "ANY"
+            : vehicle.getType() + (Boolean.TRUE.equals(vehicle.getIsElectric()) ? "/EV" : "");
+        boolean traffic = Boolean.TRUE.equals(request.getIncludeTrafficData());
+        boolean alternatives = Boolean.TRUE.equals(request.getGenerateAlternatives());
+        return cell(request.getStartLatitude()) + ":" + cell(request.getStartLongitude()) + "|"
+            + cell(request.getEndLatitude()) + ":" + cell(request.getEndLongitude()) + "|"
+            + vehicleClass + "|" + (traffic ? "T" : "-") + (alternatives ? "A" : "-") + "|" + trafficWindow(now);
+    }
+
+    /**
+     * Returns fresh, unsaved routes for the request built from the cached entry,
+     * or {@code null} on a miss.
+     */
+    public List<Route> get(String key, RouteOptimizationRequest request, long now) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= now) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) return null;
+
+        List<Route> routes = new ArrayList<>(entry.routes.size());
+        for (CachedRoute cached : entry.routes) {
+            Route route = new Route();
+            route.setVehicleId(request.getVehicleId());
+            route.setStartLocation(request.getStartLocation());
+            route.setEndLocation(request.getEndLocation());
+            route.setStartLatitude(request.getStartLatitude());
+            route.setStartLongitude(request.getStartLongitude());
+            route.setEndLatitude(request.getEndLatitude());
+            route.setEndLongitude(request.getEndLongitude());
+            route.setDistanceKm(cached.distanceKm);
+            route.setEtaMinutes(cached.etaMinutes);
+            route.setEnergyCost(cached.energyCost);
+            route.setTrafficLevel(cached.trafficLevel);
+            route.setOptimizationType(cached.type);
+            route.setOptimizedPath(cached.innerPath == null
+                ? request.getStartLocation() + " -> " + request.getEndLocation()
+                : request.getStartLocation() + " -> " + cached.innerPath + " -> " + request.getEndLocation());
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    public void put(String key, List<Route> routes, long now) {
+        List<CachedRoute> cached = routes.stream().map(CachedRoute::new).toList();
+        long expiresAt = (trafficWindow(now) + 1) * trafficWindowMinutes * 60_000L;
+        synchronized (entries) {
+            entries.put(key, new Entry(cached, expiresAt));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private long cell(Double coordinate) {
+        return (long) Math.floor(coordinate / cellDegrees);
+    }
+
+    private long trafficWindow(long now) {
+        return now / (trafficWindowMinutes * 60_000L);
+    }
+
+    private static String innerPath(Route route) {
+        String path = route.getOptimizedPath();
+        String prefix = route.getStartLocation() + " -> ";
+        String suffix = " -> " + route.getEndLocation();
+        if (path == null || path.length() < prefix.length() + suffix.length()
+                || !path.startsWith(prefix) || !path.endsWith(suffix)) {
+            return null;
+        }
+        int innerEnd = path.length() - suffix.length();
+        return innerEnd > prefix.length() ? path.substring(prefix.length(), innerEnd) : null;
+    }
+}
@@ -6,11 +6,20 @@ import com.neurofleetx.model.Route;
 import com.neurofleetx.model.Vehicle;
 import com.neurofleetx.repository.RouteRepository;
 import com.neurofleetx.repository.VehicleRepository;
+import com.neurofleetx.routing.RoadGraph;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 @Service
 @Slf4j
@@ -28,45 +37,133 @@ public class RouteService {
     @Autowired
     private ETAPredictorService etaPredictor;
     
+    @Autowired
+    private RouteResultCache routeResultCache;
+    
+    @Autowired
+    private ForkJoinPool routingForkJoinPool;
+    
+    @Value("${routing.batch.max-size:5000}")
+    private int maxBatchSize;
+    
+    private static final int BATCH_SPLIT_THRESHOLD = 16;
+    
     public RouteOptimizationResponse optimizeRoute(RouteOptimizationRequest request) {
         log.info("Optimizing route from {} to {}", request.getStartLocation(), request.getEndLocation());
         
-        List<Route> optimizedRoutes = optimizationEngine.generateOptimizedRoutes(
-            request.getStartLocation(),
-            request.getEndLocation(),
-            request.getStartLatitude(),
-            request.getStartLongitude(),
-            request.getEndLatitude(),
-            request.getEndLongitude(),
-            request.getVehicleId()
-        );
+        Vehicle vehicle = null;
+        if (request.getVehicleId() != null) {
+            vehicle = vehicleRepository.findById(request.getVehicleId()).orElse(null);
+        }
         
-        for (Route route : optimizedRoutes) {
-            if (request.getIncludeTrafficData() != null && request.getIncludeTrafficData()) {
-                Route.TrafficLevel predictedTraffic = etaPredictor.predictTrafficLevel(
-                    route.getDistanceKm(), 
-                    request.getStartLocation(), 
-                    request.getEndLocation()
-                );
-                route.setTrafficLevel(predictedTraffic);
-                
-                Vehicle vehicle = null;
-                if (request.getVehicleId() != null) {
-                    vehicle = vehicleRepository.findById(request.getVehicleId()).orElse(null);
+        List<Route> optimizedRoutes = resolveRoutes(request, vehicle, null);
+        routeRepository.saveAll(optimizedRoutes);
+        return buildResponse(optimizedRoutes);
+    }
+    
+    /**
+     * Optimizes a batch of requests. The requests are split across the routing
+     * fork-join pool and searched against one graph snapshot, and all routes are
+     * then inserted by a single saveAll so Hibernate can send them as JDBC
+     * batches. Responses are returned in request order.
+     */
+    public List<RouteOptimizationResponse> optimizeRoutes(List<RouteOptimizationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return List.of();
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new RuntimeException("Batch of " + requests.size() + " requests exceeds the limit of " + maxBatchSize);
+        }
+        log.info("Optimizing batch of {} routes", requests.size());
+        
+        Set<Long> vehicleIds = new HashSet<>();
+        for (RouteOptimizationRequest request : requests) {
+            if (request.getVehicleId() != null) vehicleIds.add(request.getVehicleId());
+        }
+        Map<Long, Vehicle> vehicles = new HashMap<>();
+        for (Vehicle vehicle : vehicleRepository.findAllById(vehicleIds)) {
+            vehicles.put(vehicle.getId(), vehicle);
+        }
+        
+        RoadGraph graph = optimizationEngine.getGraph();
+        @SuppressWarnings("unchecked")
+        List<Route>[] results = new List[requests.size()];
+        routingForkJoinPool.invoke(new BatchTask(requests, vehicles, graph, results, 0, requests.size()));
+        
+        List<Route> allRoutes = new ArrayList<>();
+        for (List<Route> routes : results) {
+            allRoutes.addAll(routes);
+        }
+        routeRepository.saveAll(allRoutes);
+        
+        List<RouteOptimizationResponse> responses = new ArrayList<>(results.length);
+        for (List<Route> routes : results) {
+            responses.add(buildResponse(routes));
+        }
+        return responses;
+    }
+    
+    private class BatchTask extends RecursiveAction {
+        private final List<RouteOptimizationRequest> requests;
+        private final Map<Long, Vehicle> vehicles;
+        private final RoadGraph graph;
+        private final List<Route>[] results;
+        private final int from;
+        private final int to;
+        
+        BatchTask(List<RouteOptimizationRequest> requests, Map<Long, Vehicle> vehicles, RoadGraph graph,
+                  List<Route>[] results, int from, int to) {
+            this.requests = requests;
+            this.vehicles = vehicles;
+            this.graph = graph;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    RouteOptimizationRequest request = requests.get(i);
+                    Vehicle vehicle = request.getVehicleId() != null ? vehicles.get(request.getVehicleId()) : null;
+                    results[i] = resolveRoutes(request, vehicle, graph);
                 }
-                boolean isElectric = vehicle != null && vehicle.getIsElectric();
-                
-                int refinedETA = etaPredictor.predictETA(
-                    route.getDistanceKm(), 
-                    predictedTraffic, 
-                    isElectric
-                );
-                route.setEtaMinutes(refinedETA);
+                return;
             }
-            
-            routeRepository.save(route);
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new BatchTask(requests, vehicles, graph, results, from, middle),
+                new BatchTask(requests, vehicles, graph, results, middle, to)
+            );
         }
+    }
+    
+    /**
+     * Returns unsaved routes for the request from the route cache or, on a miss,
+     * from the engine. With a graph the searches run on the calling thread
+     * against it; without one the engine picks the current graph and may search
+     * the optimization types concurrently.
+     */
+    private List<Route> resolveRoutes(RouteOptimizationRequest request, Vehicle vehicle, RoadGraph graph) {
+        long now = System.currentTimeMillis();
+        String cacheKey = routeResultCache.isEnabled() && hasCoordinates(request)
+            ? routeResultCache.key(request, vehicle, now)
+            : null;
+        List<Route> optimizedRoutes = cacheKey != null ? routeResultCache.get(cacheKey, request, now) : null;
         
+        if (optimizedRoutes == null) {
+            optimizedRoutes = computeRoutes(request, vehicle, graph);
+            if (cacheKey != null) {
+                routeResultCache.put(cacheKey, optimizedRoutes, now);
+            }
+        } else {
+            log.debug("Route cache hit for {}", cacheKey);
+        }
+        return optimizedRoutes;
+    }
+    
+    private RouteOptimizationResponse buildResponse(List<Route> optimizedRoutes) {
         Route primaryRoute = optimizedRoutes.stream()
             .filter(r -> r.getOptimizationType() == Route.OptimizationType.BALANCED)
             .findFirst()
@@ -79,7 +176,7 @@ public class RouteService {
         RouteOptimizationResponse response = new RouteOptimizationResponse();
         response.setPrimaryRoute(primaryRoute);
         response.setAlternativeRoutes(alternatives);
-        response.setOptimizationAlgorithm("Dijkstra + ML ETA Predictor");
+        response.setOptimizationAlgorithm(optimizationEngine.getAlgorithmName() + " + ML ETA Predictor");
         response.setTotalRoutesAnalyzed(optimizedRoutes.size());
         
         double avgTime = optimizedRoutes.stream()
@@ -99,6 +196,69 @@ public class RouteService {
         return response;
     }
     
+    private List<Route> computeRoutes(RouteOptimizationRequest request, Vehicle vehicle, RoadGraph graph) {
+        List<Route> optimizedRoutes;
+        if (Boolean.TRUE.equals(request.getGenerateAlternatives())) {
+            optimizedRoutes = optimizationEngine.generateAlternativeRoutes(
+                graph != null ? graph : optimizationEngine.getGraph(),
+                request.getStartLocation(),
+                request.getEndLocation(),
+                request.getStartLatitude(),
+                request.getStartLongitude(),
+                request.getEndLatitude(),
+                request.getEndLongitude(),
+                request.getVehicleId(),
+                Route.OptimizationType.BALANCED
+            );
+        } else {
+            optimizedRoutes = graph == null
+                ? optimizationEngine.generateOptimizedRoutes(
+                    request.getStartLocation(),
+                    request.getEndLocation(),
+                    request.getStartLatitude(),
+                    request.getStartLongitude(),
+                    request.getEndLatitude(),
+                    request.getEndLongitude(),
+                    request.getVehicleId()
+                )
+                : optimizationEngine.generateOptimizedRoutes(
+                    graph,
+                    request.getStartLocation(),
+                    request.getEndLocation(),
+                    request.getStartLatitude(),
+                    request.getStartLongitude(),
+                    request.getEndLatitude(),
+                    request.getEndLongitude(),
+                    request.getVehicleId()
+                );
+        }
+        
+        if (request.getIncludeTrafficData() != null && request.getIncludeTrafficData()) {
+            boolean isElectric = vehicle != null && vehicle.getIsElectric();
+            for (Route route : optimizedRoutes) {
+                Route.TrafficLevel predictedTraffic = etaPredictor.predictTrafficLevel(
+                    route.getDistanceKm(), 
+                    request.getStartLocation(), 
+                    request.getEndLocation()
+                );
+                route.setTrafficLevel(predictedTraffic);
+                
+                int refinedETA = etaPredictor.predictETA(
+                    route.getDistanceKm(), 
+                    predictedTraffic, 
+                    isElectric
+                );
+                route.setEtaMinutes(refinedETA);
+            }
+        }
+        return optimizedRoutes;
+    }
+    
+    private boolean hasCoordinates(RouteOptimizationRequest request) {
+        return request.getStartLatitude() != null && request.getStartLongitude() != null
+            && request.getEndLatitude() != null && request.getEndLongitude() != null;
+    }
+    
     public List<Route> getAllRoutes() {
         return routeRepository.findAllOrderByTimestampDesc();
     }
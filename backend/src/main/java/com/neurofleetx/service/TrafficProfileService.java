@@ -0,0 +1,146 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Trip;
+import com.neurofleetx.repository.TripRepository;
+import com.neurofleetx.routing.RoadGraph;
+import com.neurofleetx.routing.RoadGraphLoader;
+import com.neurofleetx.routing.TrafficProfiles;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Derives time-of-day traffic profiles for the road graph from completed trips.
+ * Each 15-minute slot gets a travel time ratio from the pace of the trips that
+ * started in it, relative to the pace of all trips. Slots with few trips lean
+ * on the coarse rush-hour prior, weighted as {@code routing.traffic.prior-trips}
+ * trips, so profiles are usable before any history exists.
+ */
+@Service
+@Slf4j
+public class TrafficProfileService {
+
+    // Trips faster than 180 km/h or shorter than a minute are treated as bad data
+    private static final double MAX_KM_PER_MINUTE = 3.0;
+    private static final double MIN_TRIP_MINUTES = 1.0;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private RoadGraphLoader roadGraphLoader;
+
+    @Value("${routing.traffic.prior-trips:20}")
+    private double priorTrips;
+
+    private volatile TrafficProfiles profiles;
+
+    @PostConstruct
+    public void init() {
+        int slots = TrafficProfiles.SLOTS_PER_DAY;
+        profiles = TrafficProfiles.build(roadGraphLoader.getGraph(), blend(new double[slots], new double[slots], new int[slots]));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${routing.traffic.refresh-cron:0 30 3 * * *}")
+    public void refresh() {
+        long started = System.currentTimeMillis();
+        double[] minutes = new double[TrafficProfiles.SLOTS_PER_DAY];
+        double[] kilometres = new double[TrafficProfiles.SLOTS_PER_DAY];
+        int[] counts = new int[TrafficProfiles.SLOTS_PER_DAY];
+        int used = 0;
+
+        for (Object[] row : tripRepository.findTimingsByStatus(Trip.TripStatus.COMPLETED)) {
+            LocalDateTime startTime = (LocalDateTime) row[0];
+            LocalDateTime endTime = (LocalDateTime) row[1];
+            Double distance = (Double) row[2];
+            Integer duration = (Integer) row[3];
+
+            double tripMinutes = duration != null && duration > 0
+                ? duration
+                : endTime != null ? Duration.between(startTime, endTime).toSeconds() / 60.0 : 0.0;
+            if (distance == null || distance <= 0 || tripMinutes < MIN_TRIP_MINUTES
+                    || distance / tripMinutes > MAX_KM_PER_MINUTE) {
+                continue;
+            }
+            int slot = TrafficProfiles.slot(startTime.getHour() * 60 + startTime.getMinute());
+            minutes[slot] += tripMinutes;
+            kilometres[slot] += distance;
+            counts[slot]++;
+            used++;
+        }
+
+        profiles = TrafficProfiles.build(roadGraphLoader.getGraph(), blend(minutes, kilometres, counts));
+        log.info("Built traffic profiles from {} completed trips in {} ms", used, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Returns the profiles if they were built for the given graph.
+     */
+    public TrafficProfiles getProfiles(RoadGraph graph) {
+        TrafficProfiles current = profiles;
+        return current != null && current.graph() == graph ? current : null;
+    }
+
+    /**
+     * Travel time ratio of the time of day relative to typical traffic.
+     */
+    public double congestionRatio(LocalDateTime time) {
+        TrafficProfiles current = profiles;
+        return current != null ? current.slotRatio(minuteOfDay(time)) : 1.0 / priorSpeedMultiplier(time.getHour());
+    }
+
+    public static double minuteOfDay(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute() + time.getSecond() / 60.0;
+    }
+
+    /**
+     * Rush-hour speed multiplier used as the prior for slots without trip history.
+     */
+    static double priorSpeedMultiplier(int hour) {
+        if (hour >= 7 && hour <= 9) return 0.7;
+        if (hour >= 17 && hour <= 19) return 0.75;
+        if (hour >= 22 || hour <= 5) return 1.3;
+
+        return 1.0;
+    }
+
+    private double[] blend(double[] minutes, double[] kilometres, int[] counts) {
+        int slots = TrafficProfiles.SLOTS_PER_DAY;
+        double[] prior = new double[slots];
+        double priorSum = 0.0;
+        for (int slot = 0; slot < slots; slot++) {
+            prior[slot] = 1.0 / priorSpeedMultiplier(slot * TrafficProfiles.SLOT_MINUTES / 60);
+            priorSum += prior[slot];
+        }
+
+        double totalMinutes = 0.0;
+        double totalKilometres = 0.0;
+        for (int slot = 0; slot < slots; slot++) {
+            totalMinutes += minutes[slot];
+            totalKilometres += kilometres[slot];
+        }
+        double overallPace = totalKilometres > 0 ? totalMinutes / totalKilometres : 0.0;
+
+        double[] ratios = new double[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            // Normalized so that the prior averages to typical traffic over the day
+            double priorRatio = prior[slot] * slots / priorSum;
+            if (counts[slot] == 0 || overallPace <= 0) {
+                ratios[slot] = priorRatio;
+            } else {
+                double observed = (minutes[slot] / kilometres[slot]) / overallPace;
+                ratios[slot] = (counts[slot] * observed + priorTrips * priorRatio) / (counts[slot] + priorTrips);
+            }
+        }
+        return ratios;
+    }
+}
@@ -0,0 +1,111 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.VehiclePerformanceDTO;
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.BookingRepository;
+import com.neurofleetx.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Ranks vehicles from one grouped booking aggregation, keeping only the best
+ * K in a bounded min-heap so DTOs are built for the returned rows alone.
+ */
+@Component
+public class VehiclePerformanceLeaderboard {
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    public enum RankingMetric {
+        REVENUE, UTILIZATION, HEALTH
+    }
+
+    private static final class Candidate {
+        final Vehicle vehicle;
+        final int totalTrips;
+        final double totalRevenue;
+        final double utilization;
+        final double score;
+
+        Candidate(Vehicle vehicle, int totalTrips, double totalRevenue, double utilization, double score) {
+            this.vehicle = vehicle;
+            this.totalTrips = totalTrips;
+            this.totalRevenue = totalRevenue;
+            this.utilization = utilization;
+            this.score = score;
+        }
+    }
+
+    private static final Comparator<Candidate> RANKING = Comparator
+            .<Candidate>comparingDouble(c -> c.score)
+            .thenComparingDouble(c -> c.totalRevenue)
+            .thenComparing(c -> c.vehicle.getId(), Comparator.reverseOrder());
+
+    public List<VehiclePerformanceDTO> topVehicles(int k, RankingMetric metric) {
+        if (k <= 0) {
+            return List.of();
+        }
+
+        Map<Long, Object[]> statsByVehicle = new HashMap<>();
+        for (Object[] row : bookingRepository.aggregateByVehicle(Booking.BookingStatus.COMPLETED)) {
+            statsByVehicle.put((Long) row[0], row);
+        }
+
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(RANKING);
+        for (Vehicle vehicle : vehicleRepository.findAll()) {
+            Object[] stats = statsByVehicle.get(vehicle.getId());
+            int totalTrips = stats != null ? ((Number) stats[1]).intValue() : 0;
+            double totalRevenue = stats != null ? ((Number) stats[2]).doubleValue() : 0.0;
+            int completedTrips = stats != null ? ((Number) stats[3]).intValue() : 0;
+            double utilization = totalTrips > 0
+                ? Math.round((double) completedTrips / totalTrips * 1000.0) / 10.0
+                : 0.0;
+
+            double score = switch (metric) {
+                case REVENUE -> totalRevenue;
+                case UTILIZATION -> utilization;
+                case HEALTH -> healthScore(vehicle);
+            };
+
+            Candidate candidate = new Candidate(vehicle, totalTrips, totalRevenue, utilization, score);
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (RANKING.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        List<VehiclePerformanceDTO> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(toDto(heap.poll()));
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    private VehiclePerformanceDTO toDto(Candidate candidate) {
+        Vehicle vehicle = candidate.vehicle;
+        return new VehiclePerformanceDTO(
+            vehicle.getVehicleNumber(),
+            vehicle.getManufacturer() + " " + vehicle.getModel(),
+            vehicle.getType().name(),
+            vehicle.getStatus().name(),
+            candidate.totalTrips,
+            Math.round(candidate.totalRevenue * 100.0) / 100.0,
+            healthScore(vehicle),
+            candidate.utilization
+        );
+    }
+
+    private int healthScore(Vehicle vehicle) {
+        return vehicle.getHealthScore() != null ? vehicle.getHealthScore() : 100;
+    }
+}
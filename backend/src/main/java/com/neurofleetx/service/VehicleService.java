@@ -1,15 +1,23 @@
 package com.neurofleetx.service;
 
+import com.neurofleetx.event.VehicleChangedEvent;
 import com.neurofleetx.model.Booking;
 import com.neurofleetx.model.Vehicle;
 import com.neurofleetx.repository.BookingRepository;
 import com.neurofleetx.repository.VehicleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,6 +28,15 @@ public class VehicleService {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private VehicleSpatialIndex vehicleSpatialIndex;
+
+    @Value("${fleet.nearby.max-radius-km:500}")
+    private double maxNearbyRadiusKm;
+
     private Random random = new Random();
 
     public List<Vehicle> getAllVehicles() {
@@ -39,19 +56,34 @@ public class VehicleService {
         return vehicleRepository.findByType(type);
     }
     
+    public List<Vehicle> getNearbyAvailableVehicles(double latitude, double longitude, double radiusKm,
+                                                    Integer minCapacity, Integer minEnergyLevel) {
+        if (!(radiusKm > 0 && radiusKm <= maxNearbyRadiusKm)) {
+            throw new RuntimeException("Radius must be greater than 0 and at most " + maxNearbyRadiusKm + " km");
+        }
+        if (!(Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180)) {
+            throw new RuntimeException("Invalid coordinates");
+        }
+        int energyAbove = minEnergyLevel != null ? minEnergyLevel - 1 : -1;
+        List<VehicleSpatialIndex.Candidate> candidates = vehicleSpatialIndex.withinRadius(
+                latitude, longitude, radiusKm, minCapacity != null ? minCapacity : 0, energyAbove, energyAbove);
+
+        Map<Long, Vehicle> vehicles = vehicleRepository.findAllById(
+                candidates.stream().map(VehicleSpatialIndex.Candidate::getVehicleId).toList()).stream()
+                .collect(Collectors.toMap(Vehicle::getId, v -> v));
+        return candidates.stream()
+                .map(c -> vehicles.get(c.getVehicleId()))
+                .filter(v -> v != null && v.getStatus() == Vehicle.VehicleStatus.AVAILABLE)
+                .toList();
+    }
+    
     public List<Vehicle> getAvailableUnbookedVehicles() {
         List<Vehicle> availableVehicles = vehicleRepository.findByStatus(Vehicle.VehicleStatus.AVAILABLE);
         
-        List<Booking> activeBookings = bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.PENDING || 
-                            b.getStatus() == Booking.BookingStatus.CONFIRMED || 
-                            b.getStatus() == Booking.BookingStatus.IN_PROGRESS)
-                .collect(Collectors.toList());
+        Set<Long> bookedVehicleIds = new HashSet<>(bookingRepository.findVehicleIdsByStatusIn(Booking.ACTIVE_STATUSES));
         
         return availableVehicles.stream()
-                .filter(vehicle -> activeBookings.stream()
-                        .noneMatch(booking -> booking.getVehicle() != null && 
-                                             booking.getVehicle().getId().equals(vehicle.getId())))
+                .filter(vehicle -> !bookedVehicleIds.contains(vehicle.getId()))
                 .collect(Collectors.toList());
     }
 
@@ -78,11 +110,14 @@ public class VehicleService {
             vehicle.setSpeed(0.0);
         }
         
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(saved, null, VehicleChangedEvent.ChangeType.CREATED));
+        return saved;
     }
 
     public Vehicle updateVehicle(Long id, Vehicle vehicleDetails) {
         Vehicle vehicle = getVehicleById(id);
+        Vehicle.VehicleStatus previousStatus = vehicle.getStatus();
         vehicle.setModel(vehicleDetails.getModel());
         vehicle.setManufacturer(vehicleDetails.getManufacturer());
         vehicle.setType(vehicleDetails.getType());
@@ -107,16 +142,43 @@ public class VehicleService {
         }
         
         vehicle.setUpdatedAt(LocalDateTime.now());
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(saved, previousStatus, VehicleChangedEvent.ChangeType.UPDATED));
+        return saved;
     }
 
     public void deleteVehicle(Long id) {
-        vehicleRepository.deleteById(id);
+        vehicleRepository.findById(id).ifPresent(vehicle -> {
+            vehicleRepository.delete(vehicle);
+            eventPublisher.publishEvent(
+                new VehicleChangedEvent(vehicle, vehicle.getStatus(), VehicleChangedEvent.ChangeType.DELETED));
+        });
     }
 
     public Vehicle updateVehicleTelemetry(Long id) {
-        Vehicle vehicle = getVehicleById(id);
-        
+        Vehicle updated = applyTelemetry(getVehicleById(id));
+        if (updated == null) {
+            throw new RuntimeException("Vehicle not found");
+        }
+        return updated;
+    }
+    
+    /**
+     * Updates the telemetry of every vehicle. A vehicle changed by an assignment
+     * or booking while its telemetry was computed keeps its current state until
+     * the next update, so one conflict does not fail the whole batch.
+     */
+    public List<Vehicle> updateAllVehiclesTelemetry() {
+        List<Vehicle> updated = new ArrayList<>();
+        for (Vehicle vehicle : getAllVehicles()) {
+            Vehicle saved = applyTelemetry(vehicle);
+            if (saved != null) updated.add(saved);
+        }
+        return updated;
+    }
+    
+    // Returns the vehicle as it now stands if it changed concurrently, or null if it was deleted
+    private Vehicle applyTelemetry(Vehicle vehicle) {
         if (vehicle.getLatitude() == null) vehicle.setLatitude(40.7128);
         if (vehicle.getLongitude() == null) vehicle.setLongitude(-74.0060);
         
@@ -157,14 +219,15 @@ public class VehicleService {
         }
         
         vehicle.setUpdatedAt(LocalDateTime.now());
-        return vehicleRepository.save(vehicle);
-    }
-    
-    public List<Vehicle> updateAllVehiclesTelemetry() {
-        List<Vehicle> vehicles = getAllVehicles();
-        return vehicles.stream()
-                .map(v -> updateVehicleTelemetry(v.getId()))
-                .toList();
+        Vehicle saved;
+        try {
+            saved = vehicleRepository.save(vehicle);
+        } catch (ConcurrencyFailureException e) {
+            return vehicleRepository.findById(vehicle.getId()).orElse(null);
+        }
+        eventPublisher.publishEvent(
+            new VehicleChangedEvent(saved, saved.getStatus(), VehicleChangedEvent.ChangeType.TELEMETRY));
+        return saved;
     }
     
     public int initializeAllVehicleGPS() {
@@ -200,7 +263,9 @@ public class VehicleService {
             }
             
             if (updated) {
-                vehicleRepository.save(vehicle);
+                Vehicle saved = vehicleRepository.save(vehicle);
+                eventPublisher.publishEvent(
+                    new VehicleChangedEvent(saved, saved.getStatus(), VehicleChangedEvent.ChangeType.TELEMETRY));
                 count++;
             }
         }
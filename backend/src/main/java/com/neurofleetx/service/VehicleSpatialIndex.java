@@ -0,0 +1,250 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.event.VehicleChangedEvent;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.VehicleRepository;
+import com.neurofleetx.routing.RoadGraph;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * In-memory grid of the positions of AVAILABLE vehicles, kept current from
+ * vehicle events (including telemetry). Nearest-vehicle queries scan rings of
+ * cells outward from the query point and stop once no unscanned cell can hold
+ * a closer match; radius queries scan the cells overlapping the circle.
+ */
+@Component
+public class VehicleSpatialIndex {
+
+    private static final double KM_PER_DEGREE = 111.195;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Value("${fleet.spatial-index.cell-degrees:0.01}")
+    private double cellDegrees;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Candidate {
+        private final long vehicleId;
+        private final double distanceKm;
+        private final int capacity;
+        private final boolean electric;
+    }
+
+    private static final class Entry {
+        final long id;
+        final double latitude;
+        final double longitude;
+        final int capacity;
+        final boolean electric;
+        // -1 when unknown
+        final int batteryLevel;
+        final int fuelLevel;
+
+        Entry(Vehicle vehicle) {
+            this.id = vehicle.getId();
+            this.latitude = vehicle.getLatitude();
+            this.longitude = vehicle.getLongitude();
+            this.capacity = vehicle.getCapacity() != null ? vehicle.getCapacity() : 0;
+            this.electric = Boolean.TRUE.equals(vehicle.getIsElectric());
+            this.batteryLevel = vehicle.getBatteryLevel() != null ? vehicle.getBatteryLevel() : -1;
+            this.fuelLevel = vehicle.getFuelLevel() != null ? vehicle.getFuelLevel() : -1;
+        }
+
+        boolean matches(double minCapacity, int batteryAbove, int fuelAbove) {
+            return capacity >= minCapacity && (electric ? batteryLevel > batteryAbove : fuelLevel > fuelAbove);
+        }
+    }
+
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // Bounds of all rows and columns ever occupied; they only grow
+    private int minRow = Integer.MAX_VALUE;
+    private int maxRow = Integer.MIN_VALUE;
+    private int minColumn = Integer.MAX_VALUE;
+    private int maxColumn = Integer.MIN_VALUE;
+    private boolean loaded;
+
+    /**
+     * Up to {@code k} available vehicles closest to the point that carry at least
+     * {@code minCapacity} and have more than the given battery (electric) or fuel
+     * level, nearest first.
+     */
+    public synchronized List<Candidate> nearest(double latitude, double longitude, int k,
+                                                double minCapacity, int batteryAbove, int fuelAbove) {
+        ensureLoaded();
+        if (k <= 0 || cells.isEmpty()) return new ArrayList<>();
+
+        PriorityQueue<Candidate> best = new PriorityQueue<>(
+            Comparator.comparingDouble(Candidate::getDistanceKm).reversed());
+        int row = row(latitude);
+        int column = column(longitude);
+        int maxRing = Math.max(Math.max(row - minRow, maxRow - row), Math.max(column - minColumn, maxColumn - column));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (best.size() == k && ringLowerBoundKm(latitude, ring) >= best.peek().getDistanceKm()) break;
+            // Once a ring spans more cells than are occupied, checking the occupied ones is cheaper
+            if ((2L * ring + 1) * (2L * ring + 1) > 4L * cells.size()) {
+                for (Map.Entry<Long, List<Entry>> cell : cells.entrySet()) {
+                    int cellRow = (int) (cell.getKey() >> 32);
+                    int cellColumn = (int) (long) cell.getKey();
+                    if (Math.max(Math.abs(cellRow - row), Math.abs(cellColumn - column)) >= ring) {
+                        collect(cell.getValue(), latitude, longitude, k, minCapacity, batteryAbove, fuelAbove, best);
+                    }
+                }
+                break;
+            }
+            for (int r = row - ring; r <= row + ring; r++) {
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = column - ring; c <= column + ring; c += edgeRow || ring == 0 ? 1 : 2 * ring) {
+                    List<Entry> cell = cells.get(key(r, c));
+                    if (cell != null) {
+                        collect(cell, latitude, longitude, k, minCapacity, batteryAbove, fuelAbove, best);
+                    }
+                }
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Candidate::getDistanceKm));
+        return result;
+    }
+
+    /**
+     * Available vehicles within {@code radiusKm} of the point that match the same
+     * capacity and energy filters as {@link #nearest}, nearest first.
+     */
+    public synchronized List<Candidate> withinRadius(double latitude, double longitude, double radiusKm,
+                                                     double minCapacity, int batteryAbove, int fuelAbove) {
+        ensureLoaded();
+        List<Candidate> result = new ArrayList<>();
+        int rows = (int) Math.ceil(radiusKm / KM_PER_DEGREE / cellDegrees);
+        int columns = (int) Math.ceil(radiusKm / (KM_PER_DEGREE * longitudeScale(latitude, rows)) / cellDegrees);
+        int row = row(latitude);
+        int column = column(longitude);
+
+        Collection<List<Entry>> scanned;
+        if ((2L * rows + 1) * (2L * columns + 1) > cells.size()) {
+            scanned = cells.values();
+        } else {
+            scanned = new ArrayList<>();
+            // Rows and columns outside the occupied bounds hold no vehicles
+            int fromRow = (int) Math.max(minRow, (long) row - rows);
+            int toRow = (int) Math.min(maxRow, (long) row + rows);
+            int fromColumn = (int) Math.max(minColumn, (long) column - columns);
+            int toColumn = (int) Math.min(maxColumn, (long) column + columns);
+            for (int r = fromRow; r <= toRow; r++) {
+                for (int c = fromColumn; c <= toColumn; c++) {
+                    List<Entry> cell = cells.get(key(r, c));
+                    if (cell != null) scanned.add(cell);
+                }
+            }
+        }
+        for (List<Entry> cell : scanned) {
+            for (Entry entry : cell) {
+                if (!entry.matches(minCapacity, batteryAbove, fuelAbove)) continue;
+                double distance = RoadGraph.haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+                if (distance <= radiusKm) {
+                    result.add(new Candidate(entry.id, distance, entry.capacity, entry.electric));
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(Candidate::getDistanceKm));
+        return result;
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return entries.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehicleChanged(VehicleChangedEvent event) {
+        if (!loaded) return;
+
+        Vehicle vehicle = event.getVehicle();
+        remove(vehicle.getId());
+        if (event.getChangeType() != VehicleChangedEvent.ChangeType.DELETED) {
+            add(vehicle);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        for (Vehicle vehicle : vehicleRepository.findByStatus(Vehicle.VehicleStatus.AVAILABLE)) {
+            add(vehicle);
+        }
+        loaded = true;
+    }
+
+    private void add(Vehicle vehicle) {
+        if (vehicle.getStatus() != Vehicle.VehicleStatus.AVAILABLE
+                || vehicle.getLatitude() == null || vehicle.getLongitude() == null) {
+            return;
+        }
+        Entry entry = new Entry(vehicle);
+        int row = row(entry.latitude);
+        int column = column(entry.longitude);
+        entries.put(entry.id, entry);
+        cells.computeIfAbsent(key(row, column), k -> new ArrayList<>()).add(entry);
+        minRow = Math.min(minRow, row);
+        maxRow = Math.max(maxRow, row);
+        minColumn = Math.min(minColumn, column);
+        maxColumn = Math.max(maxColumn, column);
+    }
+
+    private void remove(long vehicleId) {
+        Entry entry = entries.remove(vehicleId);
+        if (entry == null) return;
+        long key = key(row(entry.latitude), column(entry.longitude));
+        List<Entry> cell = cells.get(key);
+        cell.remove(entry);
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    private void collect(List<Entry> cell, double latitude, double longitude, int k,
+                         double minCapacity, int batteryAbove, int fuelAbove, PriorityQueue<Candidate> best) {
+        for (Entry entry : cell) {
+            if (!entry.matches(minCapacity, batteryAbove, fuelAbove)) continue;
+            double distance = RoadGraph.haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (best.size() < k) {
+                best.add(new Candidate(entry.id, distance, entry.capacity, entry.electric));
+            } else if (distance < best.peek().getDistanceKm()) {
+                best.poll();
+                best.add(new Candidate(entry.id, distance, entry.capacity, entry.electric));
+            }
+        }
+    }
+
+    // Any point in a cell of the given ring is at least ring - 1 whole cells away on one axis
+    private double ringLowerBoundKm(double latitude, int ring) {
+        if (ring <= 1) return 0.0;
+        return (ring - 1) * cellDegrees * KM_PER_DEGREE * longitudeScale(latitude, ring);
+    }
+
+    private double longitudeScale(double latitude, int cellsAway) {
+        return Math.cos(Math.toRadians(Math.min(89.9, Math.abs(latitude) + cellsAway * cellDegrees)));
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / cellDegrees);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
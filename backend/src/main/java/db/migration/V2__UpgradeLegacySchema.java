@@ -0,0 +1,49 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Brings databases baselined from an older ddl-auto schema up to V1. SQLite
+ * cannot add a column only if it is missing, so the columns are checked first;
+ * on databases created by V1 this changes nothing.
+ */
+public class V2__UpgradeLegacySchema extends BaseJavaMigration {
+
+    private static final String[] VERSIONED_TABLES = {"bookings", "loads", "vehicles"};
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists daily_booking_rollup ("
+                    + "rollup_date date not null, "
+                    + "booking_count integer not null, "
+                    + "completed_count integer not null, "
+                    + "revenue float not null, "
+                    + "updated_at timestamp, "
+                    + "primary key (rollup_date))");
+
+            for (String table : VERSIONED_TABLES) {
+                if (!hasColumn(connection, table, "version")) {
+                    statement.execute("alter table " + table + " add column version bigint default 0 not null");
+                }
+            }
+        }
+    }
+
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet columns = statement.executeQuery("pragma table_info(" + table + ")")) {
+            while (columns.next()) {
+                if (column.equalsIgnoreCase(columns.getString("name"))) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,231 @@
+-- Schema as generated by Hibernate before migrations took over; databases that
+-- already have it are baselined at this version instead of running it.
+
+create table bookings (
+    id bigint not null,
+    created_at timestamp not null,
+    dropoff_location varchar(255),
+    end_time timestamp not null,
+    is_recommended boolean,
+    pickup_location varchar(255),
+    start_time timestamp not null,
+    status varchar(255) not null check (status in ('PENDING','CONFIRMED','IN_PROGRESS','COMPLETED','CANCELLED')),
+    total_price float,
+    updated_at timestamp,
+    version bigint default 0 not null,
+    customer_id bigint not null,
+    driver_id bigint,
+    vehicle_id bigint not null,
+    primary key (id)
+);
+
+create table bookings_seq (
+    next_val bigint
+);
+
+create table customer_preferences (
+    id bigint not null,
+    average_booking_duration integer,
+    booking_count integer,
+    created_at timestamp not null,
+    preferred_capacity integer,
+    preferred_electric boolean,
+    preferred_locations TEXT,
+    preferred_vehicle_type varchar(255) check (preferred_vehicle_type in ('SEDAN','SUV','VAN','TRUCK','BUS','BIKE')),
+    updated_at timestamp,
+    customer_id bigint not null unique,
+    primary key (id)
+);
+
+create table customer_preferences_seq (
+    next_val bigint
+);
+
+create table daily_booking_rollup (
+    rollup_date date not null,
+    booking_count integer not null,
+    completed_count integer not null,
+    revenue float not null,
+    updated_at timestamp,
+    primary key (rollup_date)
+);
+
+create table loads (
+    load_id bigint not null,
+    assigned_at timestamp,
+    assigned_route_id bigint,
+    created_at timestamp not null,
+    delivered_at timestamp,
+    destination varchar(255) not null,
+    destination_latitude float,
+    destination_longitude float,
+    pickup_latitude float,
+    pickup_location varchar(255),
+    pickup_longitude float,
+    priority varchar(255) not null check (priority in ('LOW','MEDIUM','HIGH','URGENT')),
+    special_instructions varchar(255),
+    status varchar(255) not null check (status in ('PENDING','ASSIGNED','IN_TRANSIT','DELIVERED','CANCELLED')),
+    vehicle_id bigint,
+    version bigint default 0 not null,
+    weight float not null,
+    primary key (load_id)
+);
+
+create table loads_seq (
+    next_val bigint
+);
+
+create table maintenance (
+    id bigint not null,
+    completed_date timestamp,
+    cost float,
+    created_at timestamp not null,
+    description varchar(1000),
+    is_predictive boolean,
+    issue_type varchar(255) not null,
+    priority varchar(255) not null check (priority in ('LOW','MEDIUM','HIGH','CRITICAL')),
+    scheduled_date timestamp,
+    status varchar(255) not null check (status in ('PENDING','IN_PROGRESS','COMPLETED','CANCELLED')),
+    updated_at timestamp,
+    vehicle_id bigint not null,
+    primary key (id)
+);
+
+create table maintenance_seq (
+    next_val bigint
+);
+
+create table routes (
+    route_id bigint not null,
+    completed_at timestamp,
+    distance_km float not null,
+    end_latitude float,
+    end_location varchar(255) not null,
+    end_longitude float,
+    energy_cost float,
+    eta_minutes integer not null,
+    optimization_type varchar(255) not null check (optimization_type in ('FASTEST','ENERGY_EFFICIENT','BALANCED','SHORTEST')),
+    optimized_path TEXT,
+    priority integer,
+    start_latitude float,
+    start_location varchar(255) not null,
+    start_longitude float,
+    status varchar(255) not null check (status in ('PENDING','ACTIVE','COMPLETED','CANCELLED')),
+    timestamp timestamp not null,
+    traffic_level varchar(255) check (traffic_level in ('LOW','MEDIUM','HIGH','SEVERE')),
+    vehicle_id bigint not null,
+    primary key (route_id)
+);
+
+create table routes_seq (
+    next_val bigint
+);
+
+create table support_tickets (
+    id integer,
+    category varchar(255) not null check (category in ('VEHICLE_ISSUE','BOOKING_PROBLEM','PAYMENT_ISSUE','TECHNICAL_SUPPORT','DRIVER_COMPLAINT','MAINTENANCE_REQUEST','GENERAL_INQUIRY','OTHER')),
+    created_at timestamp not null,
+    description TEXT,
+    priority varchar(255) not null check (priority in ('LOW','MEDIUM','HIGH','URGENT')),
+    resolution TEXT,
+    resolved_at timestamp,
+    status varchar(255) not null check (status in ('OPEN','IN_PROGRESS','RESOLVED','CLOSED','CANCELLED')),
+    subject varchar(255) not null,
+    updated_at timestamp,
+    assigned_to bigint,
+    user_id bigint not null,
+    primary key (id)
+);
+
+create table trips (
+    id bigint not null,
+    created_at timestamp not null,
+    distance float,
+    duration integer,
+    end_location varchar(255),
+    end_time timestamp,
+    estimated_arrival float,
+    route_data varchar(1000),
+    start_location varchar(255),
+    start_time timestamp not null,
+    status varchar(255) not null check (status in ('SCHEDULED','IN_PROGRESS','COMPLETED','CANCELLED')),
+    updated_at timestamp,
+    booking_id bigint not null,
+    driver_id bigint,
+    vehicle_id bigint not null,
+    primary key (id)
+);
+
+create table trips_seq (
+    next_val bigint
+);
+
+create table users (
+    id bigint not null,
+    active boolean not null,
+    created_at timestamp not null,
+    email varchar(255) not null unique,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255),
+    role varchar(255) not null check (role in ('ADMIN','MANAGER','DRIVER','CUSTOMER')),
+    updated_at timestamp,
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+create table users_seq (
+    next_val bigint
+);
+
+create table vehicle_ratings (
+    id bigint not null,
+    created_at timestamp not null,
+    rating integer not null,
+    review TEXT,
+    booking_id bigint,
+    customer_id bigint not null,
+    vehicle_id bigint not null,
+    primary key (id)
+);
+
+create table vehicle_ratings_seq (
+    next_val bigint
+);
+
+create table vehicles (
+    id bigint not null,
+    battery_level integer,
+    capacity integer not null,
+    created_at timestamp not null,
+    fuel_level integer,
+    health_score integer,
+    is_electric boolean,
+    last_maintenance_date timestamp,
+    latitude float,
+    longitude float,
+    manufacturer varchar(255) not null,
+    mileage integer,
+    model varchar(255) not null,
+    speed float,
+    status varchar(255) not null check (status in ('AVAILABLE','IN_USE','MAINTENANCE','OUT_OF_SERVICE')),
+    type varchar(255) not null check (type in ('SEDAN','SUV','VAN','TRUCK','BUS','BIKE')),
+    updated_at timestamp,
+    vehicle_number varchar(255) not null unique,
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table vehicles_seq (
+    next_val bigint
+);
+
+insert into bookings_seq values (1);
+insert into customer_preferences_seq values (1);
+insert into loads_seq values (1);
+insert into maintenance_seq values (1);
+insert into routes_seq values (1);
+insert into trips_seq values (1);
+insert into users_seq values (1);
+insert into vehicle_ratings_seq values (1);
+insert into vehicles_seq values (1);
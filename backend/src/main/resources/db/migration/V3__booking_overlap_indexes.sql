@@ -0,0 +1,5 @@
+-- Overlap checks filter one or more vehicles by time range
+create index idx_bookings_vehicle_time on bookings (vehicle_id, start_time, end_time);
+
+-- Status filters, optionally narrowed by creation time
+create index idx_bookings_status_created on bookings (status, created_at);
@@ -0,0 +1,43 @@
+-- Per-vehicle rating totals, kept current by triggers so that every write to
+-- vehicle_ratings is counted, whichever client makes it
+create table vehicle_rating_summary (
+    vehicle_id bigint not null,
+    rating_count integer not null,
+    rating_sum bigint not null,
+    primary key (vehicle_id)
+);
+
+insert into vehicle_rating_summary (vehicle_id, rating_count, rating_sum)
+select vehicle_id, count(*), sum(rating) from vehicle_ratings group by vehicle_id;
+
+create trigger vehicle_ratings_summary_insert after insert on vehicle_ratings
+begin
+    insert into vehicle_rating_summary (vehicle_id, rating_count, rating_sum)
+    values (new.vehicle_id, 1, new.rating)
+    on conflict (vehicle_id) do update set
+        rating_count = rating_count + 1,
+        rating_sum = rating_sum + excluded.rating_sum;
+end;
+
+create trigger vehicle_ratings_summary_update after update of vehicle_id, rating on vehicle_ratings
+begin
+    update vehicle_rating_summary set
+        rating_count = rating_count - 1,
+        rating_sum = rating_sum - old.rating
+    where vehicle_id = old.vehicle_id;
+    delete from vehicle_rating_summary where vehicle_id = old.vehicle_id and rating_count = 0;
+    insert into vehicle_rating_summary (vehicle_id, rating_count, rating_sum)
+    values (new.vehicle_id, 1, new.rating)
+    on conflict (vehicle_id) do update set
+        rating_count = rating_count + 1,
+        rating_sum = rating_sum + excluded.rating_sum;
+end;
+
+create trigger vehicle_ratings_summary_delete after delete on vehicle_ratings
+begin
+    update vehicle_rating_summary set
+        rating_count = rating_count - 1,
+        rating_sum = rating_sum - old.rating
+    where vehicle_id = old.vehicle_id;
+    delete from vehicle_rating_summary where vehicle_id = old.vehicle_id and rating_count = 0;
+end;
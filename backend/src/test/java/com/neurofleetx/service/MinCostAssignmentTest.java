@@ -0,0 +1,95 @@
+package com.neurofleetx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinCostAssignmentTest {
+
+    @Test
+    void matchesBruteForceOnRandomSmallInstances() {
+        Random random = new Random(42);
+        for (int instance = 0; instance < 2000; instance++) {
+            int rows = 1 + random.nextInt(6);
+            int columns = 1 + random.nextInt(5);
+
+            int[] rowStart = new int[rows + 1];
+            List<Integer> edgeColumns = new ArrayList<>();
+            List<Double> edgeCosts = new ArrayList<>();
+            double[] unassignedCosts = new double[rows];
+            for (int row = 0; row < rows; row++) {
+                rowStart[row] = edgeColumns.size();
+                unassignedCosts[row] = 1 + random.nextInt(50);
+                for (int column = 0; column < columns; column++) {
+                    if (random.nextInt(3) == 0) continue;
+                    edgeColumns.add(column);
+                    edgeCosts.add((double) random.nextInt(40));
+                }
+            }
+            rowStart[rows] = edgeColumns.size();
+            int[] columnArray = edgeColumns.stream().mapToInt(Integer::intValue).toArray();
+            double[] costArray = edgeCosts.stream().mapToDouble(Double::doubleValue).toArray();
+
+            int[] assigned = MinCostAssignment.solve(rows, columns, rowStart, columnArray, costArray, unassignedCosts);
+
+            double expected = bruteForce(0, new boolean[columns], rowStart, columnArray, costArray, unassignedCosts);
+            assertEquals(expected, totalCost(assigned, columns, rowStart, columnArray, costArray, unassignedCosts),
+                1e-9, "instance " + instance);
+        }
+    }
+
+    @Test
+    void higherPriorityRowTakesTheOnlyEdgeOfAnotherRow() {
+        // Both rows can only take column 0; the second row is weighted as higher priority
+        int[] rowStart = {0, 1, 2};
+        int[] edgeColumns = {0, 0};
+        double[] edgeCosts = {5.0, 20.0};
+        double[] unassignedCosts = {100.0, 400.0};
+
+        assertArrayEquals(new int[]{-1, 0},
+            MinCostAssignment.solve(2, 1, rowStart, edgeColumns, edgeCosts, unassignedCosts));
+
+        // Same instance with the higher-priority row first
+        assertArrayEquals(new int[]{0, -1},
+            MinCostAssignment.solve(2, 1, rowStart, edgeColumns, new double[]{20.0, 5.0}, new double[]{400.0, 100.0}));
+    }
+
+    private static double totalCost(int[] assigned, int columns, int[] rowStart, int[] edgeColumns,
+                                    double[] edgeCosts, double[] unassignedCosts) {
+        boolean[] used = new boolean[columns];
+        double total = 0.0;
+        for (int row = 0; row < assigned.length; row++) {
+            if (assigned[row] < 0) {
+                total += unassignedCosts[row];
+                continue;
+            }
+            assertFalse(used[assigned[row]], "column " + assigned[row] + " assigned twice");
+            used[assigned[row]] = true;
+            double cost = Double.NaN;
+            for (int e = rowStart[row]; e < rowStart[row + 1]; e++) {
+                if (edgeColumns[e] == assigned[row]) cost = edgeCosts[e];
+            }
+            assertFalse(Double.isNaN(cost), "row " + row + " assigned to column " + assigned[row] + " without an edge");
+            total += cost;
+        }
+        return total;
+    }
+
+    private static double bruteForce(int row, boolean[] used, int[] rowStart, int[] edgeColumns,
+                                     double[] edgeCosts, double[] unassignedCosts) {
+        if (row == unassignedCosts.length) return 0.0;
+        double best = unassignedCosts[row] + bruteForce(row + 1, used, rowStart, edgeColumns, edgeCosts, unassignedCosts);
+        for (int e = rowStart[row]; e < rowStart[row + 1]; e++) {
+            int column = edgeColumns[e];
+            if (used[column]) continue;
+            used[column] = true;
+            best = Math.min(best, edgeCosts[e] + bruteForce(row + 1, used, rowStart, edgeColumns, edgeCosts, unassignedCosts));
+            used[column] = false;
+        }
+        return best;
+    }
+}